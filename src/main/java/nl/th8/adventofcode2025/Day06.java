@@ -2,16 +2,18 @@ package nl.th8.adventofcode2025;
 
 import nl.th8.adventofcode2025.utils.PuzzleInputParser;
 
+import java.math.BigInteger;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 
 public class Day06 implements Day {
-    private static final String WHITESPACE_REGEX = "\\s+";
-    private static final String DECIMAL_REGEX = "\\d+";
-    private static final String OPERATOR_SUM = "+";
-    private static final String OPERATOR_MULTIPLY = "*";
+    private static final char BLANK = ' ';
+    private static final long NO_NUMBER = -1;
+    private static final long TOO_MANY_DIGITS = -2;
+    //Any number of up to 18 digits fits in a long
+    private static final int MAX_LONG_DIGITS = 18;
 
     private final PuzzleInputParser puzzleInputParser;
 
@@ -27,133 +29,393 @@ public class Day06 implements Day {
 
 
     /**
-     * To solve part one we create a list of lists containing all the numbers in a column.
-     * <<p>
-     * We then run through all operators and apply them to all the numbers in the corresponding column.
+     * To solve part one we read the numbers of each problem row by row, and apply the problem's operator to them.
+     * See {@link this#evaluateWorkSheet(List)}
+     *
      * @return the sum of the results of all operations.
+     * @throws ArithmeticException if the total does not fit in a long, see {@link this#solvePartOneExact()}
      */
     public long solvePartOne() {
-        List<String> workSheet = puzzleInputParser.getInputAsStringList();
-        int amountOfProblems = workSheet.getFirst().split(WHITESPACE_REGEX).length;
-        List<List<Long>> operands = initEmptyLists(amountOfProblems);
+        return evaluateWorkSheet(puzzleInputParser.getInputAsStringList()).rowWiseTotal().longValueExact();
+    }
 
-        for(var row : workSheet) {
-            parseRow(row, operands);
-        }
+    /**
+     * To solve part two we read the numbers of each problem column by column from right-to-left & top-to-bottom, and
+     * apply the problem's operator to them. See {@link this#evaluateWorkSheet(List)}
+     *
+     * @return the sum of the results of all operations.
+     * @throws ArithmeticException if the total does not fit in a long, see {@link this#solvePartTwoExact()}
+     */
+    public long solvePartTwo() {
+        return evaluateWorkSheet(puzzleInputParser.getInputAsStringList()).columnWiseTotal().longValueExact();
+    }
 
-        long totalSum = 0;
-        String[] operators = workSheet.getLast().split(WHITESPACE_REGEX);
-        for(int i = 0;  i < operators.length; i++) {
-            if(operators[i].equals(OPERATOR_SUM))
-                totalSum += operands.get(i).stream()
-                        .mapToLong(Long::longValue)
-                        .sum();
-            else if(operators[i].equals(OPERATOR_MULTIPLY))
-                totalSum += operands.get(i).stream()
-                        .mapToLong(Long::longValue)
-                        .reduce(1, (a, b) -> a * b);
-        }
+    /**
+     * Same as {@link this#solvePartOne()}, for worksheets whose total does not fit in a long.
+     *
+     * @return the sum of the results of all operations.
+     */
+    public BigInteger solvePartOneExact() {
+        return evaluateWorkSheet(puzzleInputParser.getInputAsStringList()).rowWiseTotal().bigIntegerValue();
+    }
 
-        return totalSum;
+    /**
+     * Same as {@link this#solvePartTwo()}, for worksheets whose total does not fit in a long.
+     *
+     * @return the sum of the results of all operations.
+     */
+    public BigInteger solvePartTwoExact() {
+        return evaluateWorkSheet(puzzleInputParser.getInputAsStringList()).columnWiseTotal().bigIntegerValue();
     }
 
     /**
-     * Initioalise our list of lists by putting an empty list at as many indexes as we have operations to perform.
-     * @param size amount of lists to initialise
+     * Evaluate the worksheet in two steps. First we find where each problem begins and ends in a single scan over the
+     * worksheet, see {@link this#findProblems(WorkSheet)}. As the problems don't depend on each other, we then evaluate
+     * them in parallel, each reading its numbers for both parts at the same time, see
+     * {@link this#evaluateProblem(WorkSheet, int, int)}. The results of the problems are then summed into the totals.
+     *
+     * @param rows of the worksheet input, with the operators on the last row
      *
-     * @return the initialised list
+     * @return the totals of the worksheet read row-wise and column-wise.
      */
-    private List<List<Long>> initEmptyLists(int size) {
-        List<List<Long>> result = new ArrayList<>();
-        for(int i = 0; i < size; i++) {
-            result.add(new ArrayList<>());
-        }
-        return result;
+    private WorkSheetTotals evaluateWorkSheet(List<String> rows) {
+        WorkSheet workSheet = WorkSheet.of(rows);
+        int[] problemBoundaries = findProblems(workSheet);
+
+        return IntStream.range(0, problemBoundaries.length / 2)
+                .parallel()
+                .mapToObj(problem -> evaluateProblem(workSheet, problemBoundaries[problem * 2], problemBoundaries[problem * 2 + 1]))
+                .collect(() -> new WorkSheetTotals(new Accumulator().reset(Operator.SUM), new Accumulator().reset(Operator.SUM)),
+                        WorkSheetTotals::add,
+                        WorkSheetTotals::add);
     }
 
     /**
-     * Parse a row of input, and put all numbers into the corresponding lists.
+     * Find all problems in the worksheet. A column consisting of only blanks separates two problems.
+     *
+     * @param workSheet to find the problems in
      *
-     * @param row to parse
-     * @param operands to put the numbers into
+     * @return the first column and the column behind the last column of each problem, one after the other.
      */
-    private void parseRow(String row, List<List<Long>> operands) {
-        String[] rowSplit = row.trim().split(WHITESPACE_REGEX);
-        for(int i = 0; i < rowSplit.length; i++) {
-            if(rowSplit[i].matches(DECIMAL_REGEX)) {
-                operands.get(i).add(Long.parseLong(rowSplit[i]));
+    private static int[] findProblems(WorkSheet workSheet) {
+        int[] problemBoundaries = new int[workSheet.width + 1];
+        int amountOfBoundaries = 0;
+        boolean inProblem = false;
+
+        for(int x = 0; x < workSheet.width; x++) {
+            if(workSheet.isBlankColumn(x) == inProblem) {
+                problemBoundaries[amountOfBoundaries++] = x;
+                inProblem = !inProblem;
             }
         }
+        //Close the last problem at the edge of the worksheet.
+        if(inProblem)
+            problemBoundaries[amountOfBoundaries++] = workSheet.width;
+        return Arrays.copyOf(problemBoundaries, amountOfBoundaries);
     }
 
     /**
-     * To solve part two we create a list of lists containing all the numbers in a column. Making sure to convert from
-     * right-to-left & top-to-bottom to an ordered list.
-     * <<p>
-     * We then run through all operators and apply them to all the numbers in the corresponding column.
-     * @return the sum of the results of all operations.
+     * Evaluate a single problem for both parts. We read the numbers row by row for part one, and column by column for
+     * part two. As the operators don't care about the order of the numbers, we can read the columns left-to-right just
+     * like the rows, and apply each number to the problem's running result as soon as it's complete, instead of
+     * collecting the numbers first. See {@link Accumulator}
+     *
+     * @param workSheet to read the problem from
+     * @param begin first column of the problem
+     * @param end column behind the last column of the problem
+     *
+     * @return the results of the problem read row-wise and column-wise.
      */
-    public long solvePartTwo() {
-        List<String> workSheet = puzzleInputParser.getInputAsStringList();
-        int amountOfProblems = workSheet.getFirst().split(WHITESPACE_REGEX).length;
-        List<List<Long>> operands = initEmptyLists(amountOfProblems);
-
-        parseColumns(workSheet, operands, amountOfProblems);
-
-        long totalSum = 0;
-        String[] operators = workSheet.getLast().split(WHITESPACE_REGEX);
-        for(int i = 0;  i < operators.length; i++) {
-            if(operators[i].equals(OPERATOR_SUM))
-                totalSum += operands.get(i).stream()
-                        .mapToLong(Long::longValue)
-                        .sum();
-            else if(operators[i].equals(OPERATOR_MULTIPLY))
-                totalSum += operands.get(i).stream()
-                        .mapToLong(Long::longValue)
-                        .reduce(1, (a, b) -> a * b);
-        }
-
-        return totalSum;
+    private static WorkSheetTotals evaluateProblem(WorkSheet workSheet, int begin, int end) {
+        Operator operator = findOperator(workSheet, begin, end);
+
+        Accumulator rowWiseResult = new Accumulator().reset(operator);
+        for(int y = 0; y < workSheet.amountOfNumberRows(); y++) {
+            long number = workSheet.rowNumber(y, begin, end);
+            if(number == TOO_MANY_DIGITS)
+                rowWiseResult.apply(workSheet.rowBigNumber(y, begin, end));
+            else if(number != NO_NUMBER)
+                rowWiseResult.apply(number);
+        }
+
+        Accumulator columnWiseResult = new Accumulator().reset(operator);
+        for(int x = begin; x < end; x++) {
+            long number = workSheet.columnNumber(x);
+            if(number == TOO_MANY_DIGITS)
+                columnWiseResult.apply(workSheet.columnBigNumber(x));
+            else if(number != NO_NUMBER)
+                columnWiseResult.apply(number);
+        }
+
+        return new WorkSheetTotals(rowWiseResult, columnWiseResult);
     }
 
     /**
-     * Run through all columns in the worksheet and convert them into numbers needed.
-     * See {@link this#constructNumbers(List, List, int, int, int)}
+     * Find the operator of the problem between the given columns. The operator sits below the problem, usually in its
+     * first column.
+     *
+     * @param workSheet to read the operator from
+     * @param begin first column of the problem
+     * @param end column behind the last column of the problem
      *
-     * @param workSheet to convert
-     * @param operands to convert into
+     * @return the operator of the problem.
      */
-    private void parseColumns(List<String> workSheet, List<List<Long>> operands, int amountOfColumns) {
-        int currentPosition = 0;
-        for(int i = 0; i < amountOfColumns; i++) {
-            int columnSize = workSheet.getLast().split("[+*]")[i+1].length()+1;
-            constructNumbers(workSheet, operands, i, currentPosition, columnSize);
-            currentPosition += columnSize;
+    private static Operator findOperator(WorkSheet workSheet, int begin, int end) {
+        for(int i = begin; i < end; i++) {
+            if(workSheet.operatorAt(i) != BLANK)
+                return Operator.fromSymbol(workSheet.operatorAt(i));
         }
+        throw new IllegalArgumentException("No operator found for the problem starting at column %d".formatted(begin));
     }
 
     /**
-     * Parses the numbers for one column from right-to-left. By iterating through the column size in reverse.
-     * Taking the value in the column from each row for the current iteration, and sticking them together to create the
-     * required number.
-     *
-     * @param workSheet the worksheet input
-     * @param operands to put the constructed numbers into
-     * @param columnIndex current column being parsed
-     * @param columnPosition starting index of the column in the rows of the worksheet.
-     * @param columnSize size of the column including the whitespace behind the numbers.
+     * The worksheet transposed into a single column-major byte array, so all characters of a column sit next to each
+     * other in memory. Reading a number in part two then walks through memory in order, instead of jumping between the
+     * separate Strings of each row.
+     */
+    private static final class WorkSheet {
+        private final byte[] cells;
+        private final int width;
+        private final int height;
+
+        private WorkSheet(byte[] cells, int width, int height) {
+            this.cells = cells;
+            this.width = width;
+            this.height = height;
+        }
+
+        /**
+         * Transpose the rows in one pass. Rows shorter than the widest row are padded with blanks.
+         *
+         * @param rows of the worksheet input, with the operators on the last row
+         *
+         * @return the transposed worksheet.
+         */
+        static WorkSheet of(List<String> rows) {
+            int width = rows.stream().mapToInt(String::length).max().orElse(0);
+            int height = rows.size();
+            byte[] cells = new byte[width * height];
+            Arrays.fill(cells, (byte) BLANK);
+            for(int y = 0; y < height; y++) {
+                String row = rows.get(y);
+                for(int x = 0; x < row.length(); x++) {
+                    cells[x * height + y] = (byte) row.charAt(x);
+                }
+            }
+            return new WorkSheet(cells, width, height);
+        }
+
+        int amountOfNumberRows() {
+            return height - 1;
+        }
+
+        char operatorAt(int x) {
+            return (char) cells[x * height + height - 1];
+        }
+
+        boolean isBlankColumn(int x) {
+            for(int i = x * height; i < (x + 1) * height; i++) {
+                if(cells[i] != BLANK)
+                    return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return the number formed by the digits of the column read top-to-bottom, {@link #NO_NUMBER} if it has none,
+         * or {@link #TOO_MANY_DIGITS} if it does not fit in a long, see {@link this#columnBigNumber(int)}.
+         */
+        long columnNumber(int x) {
+            return readNumber(x * height, x * height + amountOfNumberRows(), 1);
+        }
+
+        BigInteger columnBigNumber(int x) {
+            return readBigNumber(x * height, x * height + amountOfNumberRows(), 1);
+        }
+
+        /**
+         * @return the number formed by the digits of the row between the given columns, {@link #NO_NUMBER} if it has
+         * none, or {@link #TOO_MANY_DIGITS} if it does not fit in a long, see {@link this#rowBigNumber(int, int, int)}.
+         */
+        long rowNumber(int y, int begin, int end) {
+            return readNumber(begin * height + y, end * height + y, height);
+        }
+
+        BigInteger rowBigNumber(int y, int begin, int end) {
+            return readBigNumber(begin * height + y, end * height + y, height);
+        }
+
+        /**
+         * Read the digits from the given cells into a number, skipping any blanks. Whether a cell holds a digit is turned
+         * into a 0 or 1 and multiplied into the number, rather than branching on it for each cell.
+         * <p>
+         * With more than 18 digits the number may have wrapped around, so we throw it away and let the caller read it
+         * again using {@link this#readBigNumber(int, int, int)}.
+         */
+        private long readNumber(int from, int to, int step) {
+            long number = 0;
+            int amountOfDigits = 0;
+            for(int i = from; i < to; i += step) {
+                int digit = cells[i] - '0';
+                //Negative for anything outside 0-9, so this is 1 for a digit and 0 for a blank.
+                int isDigit = ~(digit | (9 - digit)) >>> 31;
+                number = number * (1 + 9 * isDigit) + (digit & -isDigit);
+                amountOfDigits += isDigit;
+            }
+            if(amountOfDigits > MAX_LONG_DIGITS)
+                return TOO_MANY_DIGITS;
+            return amountOfDigits == 0 ? NO_NUMBER : number;
+        }
+
+        /**
+         * Read the digits from the given cells into a BigInteger, skipping any blanks. Only used for the rare number that
+         * is too long for {@link this#readNumber(int, int, int)}.
+         */
+        private BigInteger readBigNumber(int from, int to, int step) {
+            StringBuilder digits = new StringBuilder();
+            for(int i = from; i < to; i += step) {
+                if(cells[i] >= '0' && cells[i] <= '9')
+                    digits.append((char) cells[i]);
+            }
+            return new BigInteger(digits.toString());
+        }
+    }
+
+    /**
+     * Operators that can be used in a worksheet. Each operator needs to be associative and commutative, as we apply it
+     * to the numbers in whatever order we read them. Add a constant here to support a new symbol.
      */
-    private void constructNumbers(List<String> workSheet, List<List<Long>> operands, int columnIndex, int columnPosition, int columnSize) {
-        //Iterate through the column in reverse. (Subtract one from its size to convert to its index)
-        for(int indexInColumn = columnSize - 1; indexInColumn >= 0; indexInColumn--) {
-            StringBuilder number = new StringBuilder();
-            //Get the character at the current indexInColumn from each row excluding the last one which contains the operators.
-            for(int rowIndex = 0; rowIndex < workSheet.size() - 1; rowIndex++) {
-                number.append(workSheet.get(rowIndex).charAt(columnPosition + indexInColumn));
+    enum Operator {
+        SUM('+', 0) {
+            long applyExact(long left, long right) {
+                return Math.addExact(left, right);
+            }
+
+            BigInteger apply(BigInteger left, BigInteger right) {
+                return left.add(right);
             }
+        },
+        MULTIPLY('*', 1) {
+            long applyExact(long left, long right) {
+                return Math.multiplyExact(left, right);
+            }
+
+            BigInteger apply(BigInteger left, BigInteger right) {
+                return left.multiply(right);
+            }
+        },
+        MINIMUM('<', Long.MAX_VALUE) {
+            long applyExact(long left, long right) {
+                return Math.min(left, right);
+            }
+
+            BigInteger apply(BigInteger left, BigInteger right) {
+                return left.min(right);
+            }
+        },
+        MAXIMUM('>', Long.MIN_VALUE) {
+            long applyExact(long left, long right) {
+                return Math.max(left, right);
+            }
+
+            BigInteger apply(BigInteger left, BigInteger right) {
+                return left.max(right);
+            }
+        },
+        XOR('^', 0) {
+            long applyExact(long left, long right) {
+                return left ^ right;
+            }
+
+            BigInteger apply(BigInteger left, BigInteger right) {
+                return left.xor(right);
+            }
+        };
+
+        private final char symbol;
+        private final long identity;
+
+        Operator(char symbol, long identity) {
+            this.symbol = symbol;
+            this.identity = identity;
+        }
+
+        /**
+         * @return the result of the operation, throwing an ArithmeticException if it does not fit in a long.
+         */
+        abstract long applyExact(long left, long right);
+
+        abstract BigInteger apply(BigInteger left, BigInteger right);
+
+        static Operator fromSymbol(char symbol) {
+            for(Operator operator : values()) {
+                if(operator.symbol == symbol)
+                    return operator;
+            }
+            throw new IllegalArgumentException("Unknown operator '%c'".formatted(symbol));
+        }
+    }
+
+    /**
+     * Running result of applying an operator to a stream of numbers. That way we never need to keep more than one number
+     * per problem around.
+     * <p>
+     * The result stays on a primitive long for as long as it fits. Once an operation overflows, the long result is moved
+     * into a BigInteger, and the long starts over to collect the next numbers. Only when that overflows again do we apply
+     * it to the BigInteger. This means a tall column of large factors costs one BigInteger multiplication for every few
+     * numbers, rather than one for each number.
+     */
+    private static final class Accumulator {
+        private Operator operator;
+        private long pending;
+        private BigInteger bigValue;
+
+        Accumulator reset(Operator operator) {
+            this.operator = operator;
+            pending = operator.identity;
+            bigValue = null;
+            return this;
+        }
+
+        void apply(long operand) {
+            try {
+                pending = operator.applyExact(pending, operand);
+            } catch (ArithmeticException e) {
+                bigValue = bigIntegerValue();
+                pending = operand;
+            }
+        }
+
+        void apply(BigInteger operand) {
+            bigValue = operator.apply(bigIntegerValue(), operand);
+            pending = operator.identity;
+        }
+
+        void apply(Accumulator other) {
+            if(other.bigValue == null) {
+                apply(other.pending);
+            } else {
+                bigValue = operator.apply(bigIntegerValue(), other.bigIntegerValue());
+                pending = operator.identity;
+            }
+        }
+
+        BigInteger bigIntegerValue() {
+            return bigValue == null ? BigInteger.valueOf(pending) : operator.apply(bigValue, BigInteger.valueOf(pending));
+        }
+
+        /**
+         * @return the result as a long, throwing an ArithmeticException if it does not fit.
+         */
+        long longValueExact() {
+            return bigValue == null ? pending : bigIntegerValue().longValueExact();
+        }
+    }
 
-            if(!number.toString().trim().isEmpty())
-                operands.get(columnIndex).add(Long.parseLong(number.toString().trim()));
+    private record WorkSheetTotals(Accumulator rowWiseTotal, Accumulator columnWiseTotal) {
+        void add(WorkSheetTotals other) {
+            rowWiseTotal.apply(other.rowWiseTotal);
+            columnWiseTotal.apply(other.columnWiseTotal);
         }
     }
 
@@ -2,18 +2,19 @@ package nl.th8.adventofcode2025;
 
 import nl.th8.adventofcode2025.utils.PuzzleInputParser;
 
+import java.math.BigInteger;
 import java.nio.file.Path;
-import java.util.*;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.LongBinaryOperator;
+import java.util.stream.IntStream;
 
 public class Day07 implements Day {
     private static final char SOURCE = 'S';
     private static final char SPLITTER = '^';
-    private static final char BEAM = '|';
-    private static final char EMPTY = '.';
-    
-    private final Map<String, Long> timelineCache = new HashMap<>();
-    
+
     private final PuzzleInputParser puzzleInputParser;
+
     //For actual use
     public Day07() {
         puzzleInputParser = new PuzzleInputParser(Path.of("src", "main", "resources", "input", "7.txt"));}
@@ -24,118 +25,334 @@ public class Day07 implements Day {
     }
 
     /**
-     * To solve part one we build our beam row for row in the input. If we hit a splitter we put a beam on
-     * each side of it and add one to our split count.
+     * To solve part one we follow the beams down row for row through the manifold. If a beam hits a splitter we put a
+     * beam on each side of it and add one to our split count. See {@link TachyonManifold#countSplits()}
      * 
      * @return the amount of splits made.
      */
     public long solvePartOne() {
-        char[][] manifold = puzzleInputParser.getInputAs3DCharArray();
-        return traceTachyonBeam(manifold);
+        return parseManifold().countSplits();
     }
 
     /**
-     * Traces the beam from it's source to the end. Expanding the beam down row for row, and continuing in on each side
-     * of a splitter if it hit's one of those. 
+     * To solve part two we follow the beams down the same way as part one, but keep track of how many timelines lead to
+     * each beam. See {@link TachyonManifold#countTimelines()}
      * 
-     * @param manifold to trace the beam in.
-     * @return the amount of splitters hit whilst tracing the beam.
+     * @return the amount of timelines created.
+     * @throws ArithmeticException if the amount of timelines does not fit in a long, see {@link this#solvePartTwoExact()}
      */
-    private int traceTachyonBeam(char[][] manifold) {
-        int amountOfSplits = 0;
-        for(int y = 0; y < manifold.length; ++y) {
-            for(int x = 0; x < manifold[y].length; ++x) {
-                if (manifold[y][x] == SOURCE)
-                    manifold[y + 1][x] = BEAM;
-                else if (manifold[y][x] == BEAM && y != manifold.length - 1) {
-                    if (manifold[y + 1][x] == SPLITTER) {
-                        manifold[y + 1][x - 1] = BEAM;
-                        manifold[y + 1][x + 1] = BEAM;
-                        amountOfSplits++;
-                    } else {
-                        manifold[y + 1][x] = BEAM;
-                    }
-                }
-            }
-        }
-        return amountOfSplits;
+    public long solvePartTwo() {
+        return parseManifold().countTimelines();
     }
 
     /**
-     * To solve part two we first solve part one again, so we can use it's tracing of the beam to trace each beam backwards
-     * to the source. For each path that reaches the source we add one timeline. This requires caching of any split points
-     * as the runtime far exceeds my runtime goals for Advent of Code.
+     * Same as {@link this#solvePartTwo()}, for manifolds deep enough for the amount of timelines to not fit in a long.
      * 
      * @return the amount of timelines created.
      */
-    public long solvePartTwo() {
-        char[][] manifold = puzzleInputParser.getInputAs3DCharArray();
-        //Solve part one so we can trace back along all paths
-        traceTachyonBeam(manifold);
-        
-        //Trace each possible path back to its origin point. (e.g. all beams on the last row of the manifold)
-        long timelines = 0;
-        for(int x = 0; x < manifold[0].length; ++x) {
-            long timelinesFromBeam = backTraceBeam(manifold, x,manifold.length - 1);
-            timelines += timelinesFromBeam;
-            
-        }
-        return timelines;
+    public BigInteger solvePartTwoExact() {
+        return parseManifold().countTimelinesExact();
     }
 
     /**
-     * Traces a beam in reverse, going up one row each time until it hits the source, or ends in a dead end. Adding 
-     * one timeline to the count when it hits the source. If a splitter is next to the beam at any point we recursively
-     * trace back the beam that hit that splitter (if any), and add it's timeline count to ours.
-     * <p>
-     * We cache any paths from recursive calls, and always check if we've already cached the current path already.
+     * Same as {@link this#solvePartTwo()}, but only returns the amount of timelines modulo the given number. This never
+     * overflows, without having to give up on primitive longs.
      * 
-     * @param manifold that's been traced out so we can reverse through all paths
-     * @param x coordinate of the beam to start tracing
-     * @param startY y coordinate to start tracing at, moving up (so counting down) from there.
-     *               
-     * @return the amount of timelines traced back to the source from the given x and startY point.
+     * @param modulus to take the amount of timelines modulo
+     * @return the amount of timelines created, modulo the given number.
+     */
+    public long solvePartTwo(long modulus) {
+        return parseManifold().countTimelines(modulus);
+    }
+
+    /**
+     * Parse the manifold from the input. Each part reads the input again, so a Day07 never holds on to an old input.
+     * As tracing beams never changes a manifold, anyone wanting to run several traces on one input can parse it once
+     * with {@link TachyonManifold#parse(char[][])} and share that instead.
+     * 
+     * @return the parsed manifold.
+     */
+    private TachyonManifold parseManifold() {
+        return TachyonManifold.parse(puzzleInputParser.getInputAs3DCharArray());
+    }
+
+    /**
+     * Immutable model of a manifold. Instead of the whole grid we only keep the position of the source, and for each row
+     * the sorted columns containing a splitter. Any amount of traces can run against the same manifold, even at the same
+     * time, as none of them change it.
      */
-    private long backTraceBeam(char[][] manifold, int x, int startY) {
-        //Cache any fully traced out splitter, otherwise we'll be here for quite a while.
-        if(timelineCache.containsKey(createTimelineCoordinate(x, startY))) {
-            return timelineCache.get(createTimelineCoordinate(x, startY));
-        }
-        
-        long timelines = 0;
-        int y = startY;
-        while(y >= 0) {
-            //We've traced this path back to the source, add one timeline
-            if(manifold[y][x] == SOURCE) {
-                return 1;
+    static final class TachyonManifold {
+        private final int width;
+        private final int sourceX;
+        private final int sourceY;
+        private final int[][] splitters;
+        private final int[] rowsWithSplitters;
+        private final int maxSplittersInRow;
+
+        private TachyonManifold(int width, int sourceX, int sourceY, int[][] splitters) {
+            this.width = width;
+            this.sourceX = sourceX;
+            this.sourceY = sourceY;
+            this.splitters = splitters;
+            rowsWithSplitters = IntStream.range(0, splitters.length)
+                    .filter(y -> splitters[y].length > 0)
+                    .toArray();
+            maxSplittersInRow = Arrays.stream(splitters).mapToInt(rowSplitters -> rowSplitters.length).max().orElse(0);
+        }
+
+        /**
+         * @param grid of the manifold, with 'S' marking the source and '^' marking the splitters.
+         * @return the parsed manifold.
+         */
+        static TachyonManifold parse(char[][] grid) {
+            int width = 0;
+            int sourceX = -1;
+            int sourceY = -1;
+            int[][] splitters = new int[grid.length][];
+            for(int y = 0; y < grid.length; ++y) {
+                width = Math.max(width, grid[y].length);
+                int[] rowSplitters = new int[grid[y].length];
+                int amountOfSplitters = 0;
+                for(int x = 0; x < grid[y].length; ++x) {
+                    if(grid[y][x] == SPLITTER) {
+                        rowSplitters[amountOfSplitters++] = x;
+                    } else if(grid[y][x] == SOURCE && sourceY == -1) {
+                        sourceX = x;
+                        sourceY = y;
+                    }
+                }
+                splitters[y] = Arrays.copyOf(rowSplitters, amountOfSplitters);
             }
-            //This path ends here, we needn't trace it further.
-            if(manifold[y][x] == SPLITTER || manifold[y][x] == EMPTY) {
-                return timelines;
+            if(sourceY == -1)
+                throw new IllegalArgumentException("The manifold has no source for the tachyon beam");
+            return new TachyonManifold(width, sourceX, sourceY, splitters);
+        }
+
+        /**
+         * Traces the beams through the manifold, only counting the splits. As we don't need to know how many timelines
+         * lead to a beam, a row of beams is just a bitset, processing 64 columns in a single operation.
+         * <p>
+         * On a row with splitters, the beams hitting a splitter are the beams AND the splitters, which we can count with
+         * {@link Long#bitCount(long)}. Those beams move one column to the left and one to the right, by shifting the hits
+         * both ways (carrying the bits crossing over to the neighbouring long). All other beams continue straight down.
+         * Rows without splitters don't change the beams at all, so we skip those.
+         * 
+         * @return the amount of splitters hit.
+         */
+        long countSplits() {
+            int words = (width + 63) / 64;
+            long[] beams = new long[words];
+            long[] rowSplitterBits = new long[words];
+            long[] hits = new long[words];
+            long lastWordMask = width % 64 == 0 ? -1L : (1L << width) - 1;
+            long amountOfSplits = 0;
+            beams[sourceX >> 6] |= 1L << sourceX;
+
+            for(int y : rowsWithSplitters) {
+                if(y <= sourceY)
+                    continue;
+                for(int x : splitters[y]) {
+                    rowSplitterBits[x >> 6] |= 1L << x;
+                }
+
+                for(int i = 0; i < words; i++) {
+                    hits[i] = beams[i] & rowSplitterBits[i];
+                    amountOfSplits += Long.bitCount(hits[i]);
+                }
+                for(int i = 0; i < words; i++) {
+                    long movedLeft = (hits[i] >>> 1) | (i + 1 < words ? hits[i + 1] << 63 : 0);
+                    long movedRight = (hits[i] << 1) | (i > 0 ? hits[i - 1] >>> 63 : 0);
+                    beams[i] = (beams[i] & ~rowSplitterBits[i]) | movedLeft | movedRight;
+                }
+                //Beams split off the edge of the manifold are lost.
+                beams[words - 1] &= lastWordMask;
+
+                for(int x : splitters[y]) {
+                    rowSplitterBits[x >> 6] = 0;
+                }
             }
-            
-            //Follow the beam up the tree, creating new traces for all splitters next to the beam.
-            //If the beam never hits that splitter (so it couldn't be split into the beam we're trace) it will not be traced back to the source, 
-            //so it will not be counted.
-            if(manifold[y][x] == BEAM) {
-                if(x - 1 >= 0 && manifold[y][x - 1] == SPLITTER) {
-                    long timelinesFound = backTraceBeam(manifold, x - 1, y -1);
-                    timelineCache.put(createTimelineCoordinate(x - 1, y - 1), timelinesFound);
-                    timelines += timelinesFound;
+            return amountOfSplits;
+        }
+
+        /**
+         * Traces the beams through the manifold, counting timelines in longs. See {@link #trace(TimelineCounts)}
+         * 
+         * @return the amount of timelines at the end of the manifold.
+         * @throws ArithmeticException if the amount of timelines does not fit in a long.
+         */
+        long countTimelines() {
+            TimelineCounts timelines = new TimelineCounts(width, Math::addExact, false);
+            trace(timelines);
+            return timelines.sum();
+        }
+
+        /**
+         * Traces the beams through the manifold, switching the count of a column over to a BigInteger once it no longer
+         * fits in a long. See {@link #trace(TimelineCounts)}
+         * 
+         * @return the amount of timelines at the end of the manifold.
+         */
+        BigInteger countTimelinesExact() {
+            TimelineCounts timelines = new TimelineCounts(width, Math::addExact, true);
+            trace(timelines);
+            return timelines.exactSum();
+        }
+
+        /**
+         * Traces the beams through the manifold, counting timelines modulo the given number. See {@link #trace(TimelineCounts)}
+         * 
+         * @param modulus to take the amount of timelines modulo
+         * @return the amount of timelines at the end of the manifold, modulo the given number.
+         */
+        long countTimelines(long modulus) {
+            if(modulus <= 0)
+                throw new IllegalArgumentException("Can't count modulo %d".formatted(modulus));
+            //Both counts are below the modulus, so even when the sum overflows, subtracting the modulus once fixes it.
+            TimelineCounts timelines = new TimelineCounts(width, (a, b) -> {
+                long sum = a + b;
+                return sum >= modulus || sum < 0 ? sum - modulus : sum;
+            }, false);
+            trace(timelines);
+            return timelines.sum() % modulus;
+        }
+
+        /**
+         * Traces the beams from the source to the end of the manifold. For each column we keep the amount of timelines in
+         * which a beam passes through it. A beam that continues straight down keeps its timelines, a beam that hits a
+         * splitter hands all of its timelines to both sides of the splitter. Beams ending up in the same column simply
+         * add up their timelines.
+         * <p>
+         * As beams only change direction at splitters, rows without splitters are skipped entirely, and on the other
+         * rows we only look at the columns holding a splitter. The columns with an active beam are tracked in a BitSet,
+         * so adding up the timelines at the end only visits the beams that made it. This way the cost scales with the
+         * amount of splitters and beams, rather than with the size of the manifold.
+         * 
+         * @param timelines to keep the counts of each column in
+         */
+        private void trace(TimelineCounts timelines) {
+            TimelineCounts splitTimelines = timelines.withWidth(maxSplittersInRow);
+            timelines.add(sourceX, 1);
+
+            for(int y : rowsWithSplitters) {
+                if(y <= sourceY)
+                    continue;
+                int[] rowSplitters = splitters[y];
+                //Take the beams hitting a splitter out first, so splitters next to each other don't pass beams along.
+                for(int i = 0; i < rowSplitters.length; ++i) {
+                    splitTimelines.moveFrom(timelines, rowSplitters[i], i);
                 }
-                if(x + 1 < manifold[0].length &&  manifold[y][x + 1] == SPLITTER) {
-                    long timelinesFound = backTraceBeam(manifold, x + 1, y -1);
-                    timelineCache.put(createTimelineCoordinate(x + 1, y - 1), timelinesFound);
-                    timelines += timelinesFound;
+                for(int i = 0; i < rowSplitters.length; ++i) {
+                    if(!splitTimelines.isActive(i))
+                        continue;
+                    int x = rowSplitters[i];
+                    //Beams split off the edge of the manifold are lost.
+                    if(x - 1 >= 0)
+                        timelines.addFrom(splitTimelines, i, x - 1);
+                    if(x + 1 < width)
+                        timelines.addFrom(splitTimelines, i, x + 1);
+                    splitTimelines.clear(i);
                 }
-                y--;
             }
         }
-        return timelines;
     }
-    
-    private static String createTimelineCoordinate(int x, int y) {
-        return "x%dy%d".formatted(x, y);
+
+    /**
+     * Amount of timelines for each column. Counts are kept in primitive longs, added up with the given operation. If that
+     * operation overflows, the count of that column can be switched over to a BigInteger, so only the columns that need
+     * it pay for it.
+     */
+    private static final class TimelineCounts {
+        private final long[] counts;
+        private final BigInteger[] bigCounts;
+        private final BitSet active;
+        private final LongBinaryOperator addition;
+        private final boolean promoteOnOverflow;
+
+        TimelineCounts(int width, LongBinaryOperator addition, boolean promoteOnOverflow) {
+            counts = new long[width];
+            bigCounts = promoteOnOverflow ? new BigInteger[width] : null;
+            active = new BitSet(width);
+            this.addition = addition;
+            this.promoteOnOverflow = promoteOnOverflow;
+        }
+
+        /**
+         * @return empty counts of the given width, counting the same way as these counts.
+         */
+        TimelineCounts withWidth(int width) {
+            return new TimelineCounts(width, addition, promoteOnOverflow);
+        }
+
+        boolean isActive(int x) {
+            return active.get(x);
+        }
+
+        void add(int x, long timelines) {
+            addExact(x, timelines, null);
+        }
+
+        /**
+         * Add the timelines of a column in the other counts to a column in these counts.
+         */
+        void addFrom(TimelineCounts other, int otherX, int x) {
+            addExact(x, other.counts[otherX], other.bigCounts == null ? null : other.bigCounts[otherX]);
+        }
+
+        /**
+         * Move the timelines of a column in the other counts to a column in these counts, clearing the other column.
+         */
+        void moveFrom(TimelineCounts other, int otherX, int x) {
+            clear(x);
+            if(other.isActive(otherX)) {
+                addFrom(other, otherX, x);
+                other.clear(otherX);
+            }
+        }
+
+        void clear(int x) {
+            counts[x] = 0;
+            if(bigCounts != null)
+                bigCounts[x] = null;
+            active.clear(x);
+        }
+
+        private void addExact(int x, long timelines, BigInteger bigTimelines) {
+            active.set(x);
+            if(bigTimelines == null && (bigCounts == null || bigCounts[x] == null)) {
+                try {
+                    counts[x] = addition.applyAsLong(counts[x], timelines);
+                    return;
+                } catch (ArithmeticException e) {
+                    if(!promoteOnOverflow)
+                        throw e;
+                }
+            }
+            BigInteger current = bigCounts[x] == null ? BigInteger.valueOf(counts[x]) : bigCounts[x];
+            bigCounts[x] = current.add(bigTimelines == null ? BigInteger.valueOf(timelines) : bigTimelines);
+            counts[x] = 0;
+        }
+
+        /**
+         * @return the sum of all counts, added up with the same operation as the counts themselves.
+         */
+        long sum() {
+            long sum = 0;
+            for(int x = active.nextSetBit(0); x >= 0; x = active.nextSetBit(x + 1)) {
+                sum = addition.applyAsLong(sum, counts[x]);
+            }
+            return sum;
+        }
+
+        /**
+         * @return the exact sum of all counts.
+         */
+        BigInteger exactSum() {
+            BigInteger sum = BigInteger.ZERO;
+            for(int x = active.nextSetBit(0); x >= 0; x = active.nextSetBit(x + 1)) {
+                sum = sum.add(bigCounts != null && bigCounts[x] != null ? bigCounts[x] : BigInteger.valueOf(counts[x]));
+            }
+            return sum;
+        }
     }
 
     public int getDayNumber() {
@@ -1,219 +1,313 @@
 package nl.th8.adventofcode2025;
 
+import nl.th8.adventofcode2025.utils.ConcurrentDisjointSet;
+import nl.th8.adventofcode2025.utils.DisjointSet;
+import nl.th8.adventofcode2025.utils.KdTree;
+import nl.th8.adventofcode2025.utils.LazySortedLongs;
+import nl.th8.adventofcode2025.utils.PackedPairs;
 import nl.th8.adventofcode2025.utils.PuzzleInputParser;
 
 import java.nio.file.Path;
-import java.util.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
 
 public class Day08 implements Day {
     
+    //Above this amount of junction boxes, calculating the distance between every pair takes too much time and memory.
+    private static final int BRUTE_FORCE_LIMIT = 2000;
+
     private final PuzzleInputParser puzzleInputParser;
     private final int amountOfConnectionsToMake;
+    private final int bruteForceLimit;
     //For actual use
     public Day08() {
         puzzleInputParser = new PuzzleInputParser(Path.of("src", "main", "resources", "input", "8.txt"));
         amountOfConnectionsToMake = 1000;
+        bruteForceLimit = BRUTE_FORCE_LIMIT;
     }
 
     //For Unittesting
     public Day08(PuzzleInputParser puzzleInputParser) {
+        this(puzzleInputParser, 10, BRUTE_FORCE_LIMIT);
+    }
+
+    //For Unittesting the spatial index on small inputs
+    Day08(PuzzleInputParser puzzleInputParser, int amountOfConnectionsToMake, int bruteForceLimit) {
         this.puzzleInputParser = puzzleInputParser;
-        amountOfConnectionsToMake = 10;
+        this.amountOfConnectionsToMake = amountOfConnectionsToMake;
+        this.bruteForceLimit = bruteForceLimit;
     }
 
 
     /**
-     * To solve part one we create a TreeMap of all calculated Euclidean distances between the given junction boxes.
-     * We connect the lowest distance box pair from this map using {@link this#connectBoxToCircuits(List, String[])} until
-     * we've reached our connection goal. Then we collect the size of the three biggest circuits we've created and multiply
-     * their sizes
+     * To solve part one we calculate the distances between all pairs of junction boxes, see {@link this#calculateEdges(JunctionBoxes)}.
+     * We connect the closest pairs until we've reached our connection goal, keeping track of the circuits in a
+     * {@link DisjointSet}. As we only need the closest few pairs, we only sort those, see {@link LazySortedLongs}.
+     * Then we take the size of the three biggest circuits we've created and multiply their sizes
+     * <p>
+     * With lots of junction boxes we can't calculate all distances, so we find the closest pairs using a {@link KdTree}
+     * instead, see {@link this#connectClosestPairs(JunctionBoxes, DisjointSet)}.
      * 
      * @return The multiplied sizes of the three biggest circuits that were created.
      */
     public long solvePartOne() {
-        List<String> junctionBoxCoordinates = puzzleInputParser.getInputAsStringList();
-        Map<String, JunctionBox> junctionBoxes = initJunctionBoxes(junctionBoxCoordinates);
-        TreeMap<Double, String> distanceMap = calculateDistances(junctionBoxes);
+        JunctionBoxes junctionBoxes = initJunctionBoxes(puzzleInputParser.getInputAsStringList());
+        if(junctionBoxes.size() > bruteForceLimit) {
+            DisjointSet circuits = new DisjointSet(junctionBoxes.size());
+            connectClosestPairs(junctionBoxes, circuits);
+            return multiplyLargestCircuits(circuits);
+        }
+        PackedPairs edgeList = calculateEdges(junctionBoxes);
+        LazySortedLongs edges = new LazySortedLongs(edgeList.pairs(), amountOfConnectionsToMake);
         
-        List<Set<String>> circuits = new ArrayList<>();
-        int junctionsConnected = 0;
-        while (junctionsConnected < amountOfConnectionsToMake && !distanceMap.isEmpty()) {
-            String[] pair = distanceMap.pollFirstEntry().getValue().split("-");
-            if(isAlreadyConnected(circuits, pair[0], pair[1])) {
-                junctionsConnected++;
-                continue;
-            }
-
-            connectBoxToCircuits(circuits, pair);
-            junctionsConnected++;
+        DisjointSet circuits = new DisjointSet(junctionBoxes.size());
+        for(int junctionsConnected = 0; junctionsConnected < amountOfConnectionsToMake && edges.hasNext(); junctionsConnected++) {
+            long edge = edges.next();
+            circuits.union(edgeList.firstElement(edge), edgeList.secondElement(edge));
         }
+        return multiplyLargestCircuits(circuits);
+    }
 
-        return circuits.stream()
-                .sorted(Comparator.comparing(Set::size, Comparator.reverseOrder()))
-                .limit(3)
-                .mapToLong(Set::size)
+    private long multiplyLargestCircuits(DisjointSet circuits) {
+        return Arrays.stream(circuits.largestComponentSizes(3))
+                .asLongStream()
                 .reduce(1, (a, b) -> a * b);
     }
 
     /**
-     * To solve part one we create a TreeMap of all calculated Euclidean distances between the given junction boxes.
-     * We connect the lowest distance box pair from this map using {@link this#connectBoxToCircuits(List, String[])} until
-     * a circuit containing all junction boxes has been created. We then take the pair which caused to circuit to be completed
-     * and multiply their x coordinates.
+     * To solve part two we calculate the distances between all pairs of junction boxes, see {@link this#calculateEdges(JunctionBoxes)}.
+     * We connect the closest pairs, keeping track of the circuits in a {@link DisjointSet}, until a single circuit
+     * containing all junction boxes remains. The pairs are sorted a chunk at a time as we go, see {@link LazySortedLongs}.
+     * We then take the pair which caused to circuit to be completed and multiply their x coordinates.
+     * <p>
+     * With lots of junction boxes we build the same circuit from a {@link KdTree} instead, see
+     * {@link this#findCompletingConnection(JunctionBoxes)}.
      * 
      * @return the multiplied value of the x coordinates of last pair needed to complete our circuit 
      */
     public long solvePartTwo() {
-        List<String> junctionBoxCoordinates = puzzleInputParser.getInputAsStringList();
-        Map<String, JunctionBox> junctionBoxes = initJunctionBoxes(junctionBoxCoordinates);
-        TreeMap<Double, String> distanceMap = calculateDistances(junctionBoxes);
-        List<Set<String>> circuits = new ArrayList<>();
-        while (!distanceMap.isEmpty()) {
-            String[] pair = distanceMap.pollFirstEntry().getValue().split("-");
-            if(isAlreadyConnected(circuits, pair[0], pair[1])) {
-                continue;
-            }
-
-            connectBoxToCircuits(circuits, pair);
-            //If the circuits list contains a single set with 1000 values, we've completed connecting the circuit together.
-            if(circuits.getFirst().size() == junctionBoxes.size()) {
-                return Math.multiplyExact((long) junctionBoxes.get(pair[0]).x, junctionBoxes.get(pair[1]).x);
-            }
+        JunctionBoxes junctionBoxes = initJunctionBoxes(puzzleInputParser.getInputAsStringList());
+        if(junctionBoxes.size() > bruteForceLimit) {
+            Connection completingConnection = findCompletingConnection(junctionBoxes);
+            return Math.multiplyExact((long) junctionBoxes.xs[completingConnection.box], junctionBoxes.xs[completingConnection.otherBox]);
         }
-        throw new IllegalArgumentException("Did not complete the circuit before running out of possible connections");
-    }
+        PackedPairs edgeList = calculateEdges(junctionBoxes);
+        LazySortedLongs edges = new LazySortedLongs(edgeList.pairs(), junctionBoxes.size());
 
-    /**
-     * Connects the current pair of junction boxes to the existing circuits, by creating a new circuit, adding one box to an
-     * existing circuit or by merging two circuits together.
-     * @param circuits that currently exist.
-     * @param pair names of the junction boxes to connect together.
-     */
-    private void connectBoxToCircuits(List<Set<String>> circuits, String[] pair) {
-        long circuitsFound = circuits.stream().filter(circuit -> circuit.contains(pair[0]) || circuit.contains(pair[1])).count();
-        //If neither box is in a circuit yet, make a new circuit containing the two boxes.
-        if(circuitsFound == 0) {
-            Set<String> circuit = new HashSet<>();
-            circuit.add(pair[0]);
-            circuit.add(pair[1]);
-            circuits.add(circuit);
-        } 
-        //If a box is part of one circuit, add the other one to that circuit as well.
-        else if (circuitsFound == 1) {
-            circuits.stream()
-                    .filter(circuit -> circuit.contains(pair[0]) || circuit.contains(pair[1]))
-                    .findFirst()
-                    .ifPresent(circuit -> {
-                        circuit.add(pair[0]);
-                        circuit.add(pair[1]);
-                    });
-        } 
-        //If both boxes are part of a circuit, merge the circuits together.
-        else {
-            Set<String> newCircuit = new  HashSet<>();
-            List<Set<String>> circuitsToMerge = circuits.stream()
-                    .filter(circuit -> circuit.contains(pair[0]) || circuit.contains(pair[1]))
-                    .toList();
-            
-            for(Set<String> toMerge: circuitsToMerge) {
-                circuits.remove(toMerge);
-                newCircuit.addAll(toMerge);
+        DisjointSet circuits = new DisjointSet(junctionBoxes.size());
+        while (edges.hasNext()) {
+            long edge = edges.next();
+            int box = edgeList.firstElement(edge);
+            int otherBox = edgeList.secondElement(edge);
+            //If connecting the pair leaves a single circuit, we've completed connecting the circuit together.
+            if(circuits.union(box, otherBox) && circuits.componentCount() == 1) {
+                return Math.multiplyExact((long) junctionBoxes.xs[box], junctionBoxes.xs[otherBox]);
             }
-            circuits.add(newCircuit);
         }
+        throw new IllegalArgumentException("Did not complete the circuit before running out of possible connections");
     }
 
-
     /**
-     * Turn the input coordinates into a Map of junctionBoxes, with their names as key to quickly fetch them later
-     * when needed.
+     * Turn the input coordinates into junctionBoxes. Each box is numbered in order of the input, so it can be used in a
+     * {@link DisjointSet}.
      * 
      * @param junctionBoxCoordinates input to create junction boxes for.
-     * @return a Map of junction boxes.
+     * @return the coordinates of all junction boxes.
      */
-    private Map<String, JunctionBox> initJunctionBoxes(List<String> junctionBoxCoordinates) {
-        Map<String, JunctionBox> junctionBoxes = new HashMap<>();
-        for(String junctionBoxCoordinate : junctionBoxCoordinates) {
-            String[] coordinates = junctionBoxCoordinate.split(",");
-            var box = new JunctionBox(Integer.parseInt(coordinates[0]), Integer.parseInt(coordinates[1]), Integer.parseInt(coordinates[2]));
-            junctionBoxes.put(box.getName(), box);
+    private JunctionBoxes initJunctionBoxes(List<String> junctionBoxCoordinates) {
+        JunctionBoxes junctionBoxes = new JunctionBoxes(junctionBoxCoordinates.size());
+        for(int box = 0; box < junctionBoxCoordinates.size(); box++) {
+            String[] coordinates = junctionBoxCoordinates.get(box).split(",");
+            junctionBoxes.xs[box] = Integer.parseInt(coordinates[0]);
+            junctionBoxes.ys[box] = Integer.parseInt(coordinates[1]);
+            junctionBoxes.zs[box] = Integer.parseInt(coordinates[2]);
         }
         return junctionBoxes;
     }
 
     /**
-     * Create a TreeMap of the distance values between each unique pair of junction boxes. We keep track of connections
-     * that have been made, so we do not calculate the connection in reverse (e.g. if box1 - box2 has been calculated, we 
-     * skip calculating box2 - box1)
+     * Calculate the distance between each unique pair of junction boxes. By only pairing each box with the boxes after
+     * it, we never calculate a pair in reverse (e.g. if box1 - box2 has been calculated, we never get to box2 - box1).
+     * The distances are calculated a whole row at a time, see {@link JunctionBoxes#squaredDistancesFrom(int, long[])}.
+     * We pack the squared distances with their pairs, see {@link PackedPairs}, as they're exact integers and sort in the
+     * same order as the distances themselves.
      * 
      * @param junctionBoxes to calculate distances between.
      *                      
-     * @return a TreeMap with all calculated distances and its corresponding connection.
+     * @return all pairs of junction boxes, packed with their distances.
      */
-    private TreeMap<Double, String> calculateDistances(Map<String, JunctionBox> junctionBoxes) {
-        TreeMap<Double, String> distanceMap = new TreeMap<>();
-        Set<String> alreadyComputed = new HashSet<>();
-        for(JunctionBox junctionBox : junctionBoxes.values()){
-            for(JunctionBox otherBox : junctionBoxes.values()){
-                if(junctionBox.equals(otherBox) || alreadyComputed.contains(createNameForConnection(otherBox, junctionBox)))
-                    continue;
-                
-                distanceMap.put(junctionBox.getDistance(otherBox), createNameForConnection(junctionBox, otherBox));
-                alreadyComputed.add(createNameForConnection(junctionBox, otherBox));
-            }
+    private PackedPairs calculateEdges(JunctionBoxes junctionBoxes) {
+        PackedPairs edgeList = new PackedPairs(junctionBoxes.size(), false);
+        long[] row = new long[junctionBoxes.size()];
+        for(int box = 0; box < junctionBoxes.size(); box++) {
+            junctionBoxes.squaredDistancesFrom(box, row);
+            edgeList.packRow(box, row);
         }
-        return distanceMap;
+        return edgeList;
     }
-    
-    private static class JunctionBox {
-        int x;
-        int y;
-        int z;
-        
-        public JunctionBox(int x, int y, int z) {
-            this.x = x;
-            this.y = y;
-            this.z = z;
+
+    /**
+     * Connect the closest pairs of junction boxes until we've reached our connection goal, without calculating the
+     * distance between every pair. Every box keeps track of its next closest neighbour, found using a {@link KdTree},
+     * and a queue hands out the closest of those. Each time a box's neighbour is handed out, we look up the neighbour
+     * after it. As every pair shows up twice, once for each of its boxes, we only connect it when it comes from the box
+     * with the lowest index.
+     * <p>
+     * Pairs are handed out on (distance, first box, second box), the same order as the brute force approach.
+     *
+     * @param junctionBoxes to connect
+     * @param circuits to connect the junction boxes in
+     */
+    private void connectClosestPairs(JunctionBoxes junctionBoxes, DisjointSet circuits) {
+        KdTree tree = new KdTree(junctionBoxes.xs, junctionBoxes.ys, junctionBoxes.zs);
+        PriorityQueue<Connection> closestNeighbours = new PriorityQueue<>(junctionBoxes.size());
+        for(int box : tree.pointsInTreeOrder()) {
+            int closestNeighbour = tree.nextNeighbour(box, -1, -1);
+            if(closestNeighbour != -1)
+                closestNeighbours.add(new Connection(tree, box, closestNeighbour));
         }
 
-        /**
-         * Wrapper for {@link this#getDistance(int, int, int)}
-         * 
-         * @param otherBox another junctionBox whose coordinates to use in {@link #getDistance(int, int, int)}
-         *                 
-         * @return calculated Euclidean distance
-         */
-        public double getDistance(JunctionBox otherBox) {
-            return getDistance(otherBox.x, otherBox.y, otherBox.z);
+        int junctionsConnected = 0;
+        while(junctionsConnected < amountOfConnectionsToMake && !closestNeighbours.isEmpty()) {
+            Connection connection = closestNeighbours.poll();
+            if(connection.box < connection.otherBox) {
+                circuits.union(connection.box, connection.otherBox);
+                junctionsConnected++;
+            }
+            int nextNeighbour = tree.nextNeighbour(connection.box, connection.squaredDistance, connection.otherBox);
+            if(nextNeighbour != -1)
+                closestNeighbours.add(new Connection(tree, connection.box, nextNeighbour));
         }
+    }
 
-        /**
-         * Calculate Euclidean distance between the x, y, z coordinates of this JunctionBox and the given 'other' x, y, z coordinates.
-         * 
-         * @param otherX 
-         * @param otherY
-         * @param otherZ
-         * 
-         * @return calculated Euclidean distance
-         */
-        public double getDistance(int otherX, int otherY, int otherZ) {
-            return Math.sqrt(Math.pow((double) x - otherX, 2) + Math.pow((double) y - otherY, 2) + Math.pow((double) z - otherZ, 2));
+    /**
+     * Find the connection which completes the circuit, without calculating the distance between every pair. Connecting
+     * the closest pairs until everything is connected builds a minimum spanning tree, and the connection completing it
+     * is the longest connection in that tree. We build the same tree using Boruvka's algorithm: each round, every
+     * circuit looks up its closest junction box in another circuit using a {@link KdTree}, and all those connections
+     * are made at once. The amount of circuits at least halves each round.
+     * <p>
+     * Within a round all lookups are independent, so they're spread over all cores. Each circuit's closest connection
+     * so far is swapped in atomically, and the connections are made in parallel through a {@link ConcurrentDisjointSet}.
+     * <p>
+     * Connections are compared on (distance, first box, second box), so every circuit picks the same connection as the
+     * brute force approach would, and the rounds can never close a loop.
+     *
+     * @param junctionBoxes to connect
+     *
+     * @return the connection which completes the circuit
+     */
+    private Connection findCompletingConnection(JunctionBoxes junctionBoxes) {
+        KdTree tree = new KdTree(junctionBoxes.xs, junctionBoxes.ys, junctionBoxes.zs);
+        int[] boxesInTreeOrder = tree.pointsInTreeOrder();
+        ConcurrentDisjointSet circuits = new ConcurrentDisjointSet(junctionBoxes.size());
+        int[] circuitOfBox = new int[junctionBoxes.size()];
+        Connection longestConnection = null;
+
+        while(circuits.componentCount() > 1) {
+            IntStream.range(0, circuitOfBox.length).parallel()
+                    .forEach(box -> circuitOfBox[box] = circuits.find(box));
+            tree.label(circuitOfBox);
+
+            AtomicReferenceArray<Connection> closestConnectionOfCircuit = new AtomicReferenceArray<>(circuitOfBox.length);
+            Arrays.stream(boxesInTreeOrder).parallel()
+                    .forEach(box -> findClosestConnection(tree, box, circuitOfBox[box], closestConnectionOfCircuit));
+
+            Connection longestInRound = IntStream.range(0, closestConnectionOfCircuit.length()).parallel()
+                    .mapToObj(closestConnectionOfCircuit::get)
+                    .filter(Objects::nonNull)
+                    .filter(connection -> circuits.union(connection.box, connection.otherBox))
+                    .max(Connection::compareTo)
+                    .orElseThrow(() -> new IllegalStateException("No circuits were connected in a round"));
+            if(longestConnection == null || longestInRound.compareTo(longestConnection) > 0)
+                longestConnection = longestInRound;
         }
-        
-        public String getName() {
-            return "x%dy%dz%d".formatted(x, y, z);
+        if(longestConnection == null)
+            throw new IllegalArgumentException("Need at least two junction boxes to complete a circuit");
+        return longestConnection;
+    }
+
+    /**
+     * Look up the closest box in another circuit, and make it the circuit's closest connection if it beats the one
+     * found so far.
+     */
+    private void findClosestConnection(KdTree tree, int box, int circuit, AtomicReferenceArray<Connection> closestConnectionOfCircuit) {
+        Connection closest = closestConnectionOfCircuit.get(circuit);
+        //Only boxes at most as far away as the circuit's closest connection so far can improve on it.
+        int otherBox = tree.nearestWithOtherLabel(box, closest == null ? Long.MAX_VALUE : closest.squaredDistance);
+        if(otherBox == -1)
+            return;
+        Connection connection = new Connection(tree, box, otherBox);
+        while(closest == null || connection.compareTo(closest) < 0) {
+            if(closestConnectionOfCircuit.compareAndSet(circuit, closest, connection))
+                return;
+            closest = closestConnectionOfCircuit.get(circuit);
         }
     }
-    
-    private static String createNameForConnection(JunctionBox junctionBox, JunctionBox otherJunctionBox) {
-        return "%s-%s".formatted(junctionBox.getName(), otherJunctionBox.getName());
+
+    /**
+     * A connection from one junction box to another, ordered on (distance, lowest box, highest box), so a connection
+     * and its reverse are equal.
+     */
+    private record Connection(long squaredDistance, int box, int otherBox) implements Comparable<Connection> {
+        Connection(KdTree tree, int box, int otherBox) {
+            this(tree.squaredDistance(box, otherBox), box, otherBox);
+        }
+
+        @Override
+        public int compareTo(Connection other) {
+            int compared = Long.compare(squaredDistance, other.squaredDistance);
+            if(compared == 0)
+                compared = Integer.compare(Math.min(box, otherBox), Math.min(other.box, other.otherBox));
+            if(compared == 0)
+                compared = Integer.compare(Math.max(box, otherBox), Math.max(other.box, other.otherBox));
+            return compared;
+        }
     }
-    
-    private static boolean isAlreadyConnected(List<Set<String>> circuits, String box, String otherBox) {
-        return circuits.stream()
-                .anyMatch(circuit -> circuit.contains(box) && circuit.contains(otherBox));
+
+    /**
+     * The coordinates of all junction boxes, stored per axis rather than per box. This way calculating the distances
+     * from one box to a whole row of others reads each array from front to back, which the JIT can turn into SIMD
+     * instructions.
+     */
+    private static final class JunctionBoxes {
+        private final int[] xs;
+        private final int[] ys;
+        private final int[] zs;
+
+        JunctionBoxes(int amountOfBoxes) {
+            xs = new int[amountOfBoxes];
+            ys = new int[amountOfBoxes];
+            zs = new int[amountOfBoxes];
+        }
+
+        int size() {
+            return xs.length;
+        }
+
+        /**
+         * Calculate the squared Euclidean distance from a box to every box after it. Calculated in longs, so it's exact
+         * and sorts in the same order as the distances themselves.
+         *
+         * @param box to calculate the distances from
+         * @param squaredDistances to write the distance to each box after the given one in, at the index of that box
+         */
+        void squaredDistancesFrom(int box, long[] squaredDistances) {
+            long x = xs[box];
+            long y = ys[box];
+            long z = zs[box];
+            for(int otherBox = box + 1; otherBox < xs.length; otherBox++) {
+                long dx = xs[otherBox] - x;
+                long dy = ys[otherBox] - y;
+                long dz = zs[otherBox] - z;
+                squaredDistances[otherBox] = dx * dx + dy * dy + dz * dz;
+            }
+        }
     }
-    
 
     public int getDayNumber() {
         return 8;
@@ -1,16 +1,20 @@
 package nl.th8.adventofcode2025;
 
+import nl.th8.adventofcode2025.utils.LazySortedLongs;
+import nl.th8.adventofcode2025.utils.PackedPairs;
 import nl.th8.adventofcode2025.utils.PuzzleInputParser;
 
 import java.nio.file.Path;
-import java.util.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.stream.IntStream;
 
-/**
- * Not my proudest solution ever, but I failed to find a less computationally expensive way to check whether the rectangles were valid.
- * Not without running out of memory atleast...
- */
 public class Day09 implements Day {
     
+    private static final int FIRST_BATCH_SIZE = 256;
+    private static final int MAX_BATCH_SIZE = 1 << 16;
+
     private final PuzzleInputParser puzzleInputParser;
     //For actual use
     public Day09() {
@@ -24,53 +28,170 @@ public class Day09 implements Day {
 
 
     /**
-     * To solve part one we calculate the area of each combination of tiles, and take the highest value we found.
+     * To solve part one we look for the biggest rectangle with a tile in its lower left and upper right corner, and the
+     * biggest rectangle with a tile in its upper left and lower right corner, see {@link this#largestRectangle(long[], long[])}.
+     * The second one is the first one with the floor flipped upside down.
      * 
      * @return the highest area formed by a rectangle between two tiles.
      */
     public long solvePartOne() {
         List<Tile> redTiles = initRedTiles();
+        long[] xs = redTiles.stream().mapToLong(Tile::x).toArray();
+        long[] ys = redTiles.stream().mapToLong(Tile::y).toArray();
+        long[] flippedYs = Arrays.stream(ys).map(y -> -y).toArray();
+
+        return Math.max(largestRectangle(xs, ys), largestRectangle(xs, flippedYs));
+    }
+
+    /**
+     * Find the biggest rectangle with a tile in its lower left corner and a tile in its upper right corner. Only tiles on
+     * the staircase along the lower left of the floor can be a lower left corner: any other tile has a tile both left
+     * of and below it, which would make a bigger rectangle. The same goes for the staircase along the upper right.
+     * <p>
+     * Along both staircases x goes up while y goes down. Moving the lower left corner to the right along its staircase,
+     * its best upper right corner never moves to the left, so we find the best corner for the middle tile, and split
+     * the search in two halves which each only need to look at one side of that corner.
+     *
+     * @param xs x coordinate of each tile
+     * @param ys y coordinate of each tile
+     *
+     * @return the area of the biggest rectangle, or 0 if there are no tiles.
+     */
+    private long largestRectangle(long[] xs, long[] ys) {
+        if(xs.length == 0)
+            return 0;
+        long[][] lowerLeft = staircase(xs, ys, 1);
+        long[][] upperRight = staircase(xs, ys, -1);
+        return largestRectangle(lowerLeft, 0, lowerLeft[0].length - 1, upperRight, 0, upperRight[0].length - 1);
+    }
+
+    private long largestRectangle(long[][] lowerLeft, int lowerLeftFrom, int lowerLeftTo, long[][] upperRight, int upperRightFrom, int upperRightTo) {
+        if(lowerLeftFrom > lowerLeftTo)
+            return 0;
+        int middle = (lowerLeftFrom + lowerLeftTo) >>> 1;
+        long biggestSize = Long.MIN_VALUE;
+        int bestCorner = upperRightFrom;
+        for(int corner = upperRightFrom; corner <= upperRightTo; corner++) {
+            long size = rectangleSize(lowerLeft[0][middle], lowerLeft[1][middle], upperRight[0][corner], upperRight[1][corner]);
+            if(size > biggestSize) {
+                biggestSize = size;
+                bestCorner = corner;
+            }
+        }
+        return Math.max(biggestSize, Math.max(
+                largestRectangle(lowerLeft, lowerLeftFrom, middle - 1, upperRight, upperRightFrom, bestCorner),
+                largestRectangle(lowerLeft, middle + 1, lowerLeftTo, upperRight, bestCorner, upperRightTo)));
+    }
+
+    /**
+     * Size of the rectangle from a lower left to an upper right corner. When the upper right corner is actually below
+     * and to the left, the size is counted as negative, so those pairs can never beat a proper rectangle.
+     */
+    private static long rectangleSize(long lowerLeftX, long lowerLeftY, long upperRightX, long upperRightY) {
+        long width = upperRightX - lowerLeftX + 1;
+        long height = upperRightY - lowerLeftY + 1;
+        if(width <= 0 && height <= 0)
+            return -width * height;
+        return width * height;
+    }
 
-        long biggestSize = 0;
-        for(Tile redTile : redTiles) {
-            for(Tile otherTile : redTiles) {
-                long size = (long) (Math.abs(redTile.x - otherTile.x) + 1) * (Math.abs(redTile.y - otherTile.y) + 1);
-                if(size > biggestSize)
-                    biggestSize = size;
+    /**
+     * Find the tiles on the staircase along the lower left (direction 1) or upper right (direction -1) of the floor: the
+     * tiles which have no other tile both further out on x and further out on y.
+     *
+     * @return the x and y coordinates of the staircase, with x going up and y going down.
+     */
+    private static long[][] staircase(long[] xs, long[] ys, int direction) {
+        //Sort outward first, on x and then y, by packing both into a long.
+        long[] tiles = new long[xs.length];
+        for(int i = 0; i < tiles.length; i++) {
+            tiles[i] = direction * xs[i] << 32 | (direction * ys[i] & 0xFFFFFFFFL) ^ 0x80000000L;
+        }
+        Arrays.sort(tiles);
+
+        long[] stepXs = new long[tiles.length];
+        long[] stepYs = new long[tiles.length];
+        int steps = 0;
+        for(long tile : tiles) {
+            long x = (tile >> 32) * direction;
+            long y = (long) (int) ((tile & 0xFFFFFFFFL) ^ 0x80000000L) * direction;
+            //A tile is only on the staircase if it's further out on y than every tile before it.
+            if(steps == 0 || (direction == 1 ? y < stepYs[steps - 1] : y > stepYs[steps - 1])) {
+                stepXs[steps] = x;
+                stepYs[steps] = y;
+                steps++;
             }
         }
-        
-        return biggestSize;
+
+        if(direction == -1) {
+            reverse(stepXs, steps);
+            reverse(stepYs, steps);
+        }
+        return new long[][]{Arrays.copyOf(stepXs, steps), Arrays.copyOf(stepYs, steps)};
+    }
+
+    private static void reverse(long[] values, int length) {
+        for(int i = 0, j = length - 1; i < j; i++, j--) {
+            long swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
     }
 
     /**
-     * To solve part two we create a cache (Map) containing the lowest and highest coordinates on an axis for any coordinate on the other axis.
-     * We then create a TreeMap of all possible area values, to prioritise which area's to check first, as checking is very computationally expensive.
+     * To solve part two we draw the loop of red and green tiles on a compressed floor, see {@link CompressedFloor}, which
+     * tells us whether a rectangle lies within the loop in one go.
+     * We then go over the rectangles from biggest to smallest, see {@link this#pairUp(List)}, and stop at the first one that's
+     * valid according to {@link CompressedFloor#containsRectangle(Tile, Tile)}. As the biggest rectangles tend to be
+     * invalid, we sort the rectangles a chunk at a time, and usually only need the first few chunks.
      * <p>
-     * We start with the highest area and work our way down until we've found a set of tiles that is valid according to {@link this#isValid(Tile, Tile, Map)}
+     * The rectangles are checked in batches, spread over all cores. As the stream keeps the order of the batch, the
+     * first valid rectangle it finds is the biggest one, and any checks on smaller rectangles still running by then are
+     * cancelled. The batches start small, as the answer is often near the top, and double in size from there.
      * 
      * @return the highest valid area value
      */
     public long solvePartTwo() {
         List<Tile> redTiles = initRedTiles();
-        Map<String, MinMax> minMaxCache = initMinMaxCoordinates(redTiles);
-        TreeMap<Long, TilePair> sizeCache = new TreeMap<>();
-        
-        for(Tile redTile : redTiles) {
-            for(Tile otherTile : redTiles) {
-                long size = (long) (Math.abs(redTile.x - otherTile.x) + 1) * (Math.abs(redTile.y - otherTile.y) + 1);
-                sizeCache.put(size, new TilePair(redTile, otherTile));
-            }
-        }
-        
-        while(!sizeCache.isEmpty()) {
-            var entry = sizeCache.pollLastEntry();
-            if(isValid(entry.getValue().tile1(), entry.getValue().tile2(), minMaxCache))
-                return entry.getKey();
+        CompressedFloor floor = CompressedFloor.of(redTiles);
+        PackedPairs tilePairs = pairUp(redTiles);
+        LazySortedLongs rectangles = new LazySortedLongs(tilePairs.pairs(), redTiles.size());
+
+        int batchSize = FIRST_BATCH_SIZE;
+        while(rectangles.hasNext()) {
+            long[] batch = new long[batchSize];
+            int amount = rectangles.next(batch);
+            OptionalInt firstValid = IntStream.range(0, amount).parallel()
+                    .filter(i -> floor.containsRectangle(redTiles.get(tilePairs.firstElement(batch[i])), redTiles.get(tilePairs.secondElement(batch[i]))))
+                    .findFirst();
+            if(firstValid.isPresent())
+                return tilePairs.value(batch[firstValid.getAsInt()]);
+            batchSize = Math.min(MAX_BATCH_SIZE, batchSize * 2);
         }
+        //A single tile is a rectangle too
+        if(!redTiles.isEmpty())
+            return 1;
         throw new IllegalStateException("No solution found!");
     }
 
+    /**
+     * Pack all pairs of red tiles with the area of the rectangle between them, negated so the biggest rectangles come
+     * first, see {@link PackedPairs}. Pairs with the same area are all kept, so none of them can get lost.
+     */
+    private static PackedPairs pairUp(List<Tile> redTiles) {
+        PackedPairs tilePairs = new PackedPairs(redTiles.size(), true);
+        long[] areas = new long[redTiles.size()];
+        for(int tile = 0; tile < redTiles.size(); tile++) {
+            Tile redTile = redTiles.get(tile);
+            for(int otherTile = tile + 1; otherTile < redTiles.size(); otherTile++) {
+                Tile other = redTiles.get(otherTile);
+                areas[otherTile] = (Math.abs((long) redTile.x - other.x) + 1) * (Math.abs((long) redTile.y - other.y) + 1);
+            }
+            tilePairs.packRow(tile, areas);
+        }
+        return tilePairs;
+    }
+
     private List<Tile> initRedTiles() {
         return puzzleInputParser.getInputAsStringList().stream()
                 .map(input -> {
@@ -81,173 +202,126 @@ public class Day09 implements Day {
     }
 
     /**
-     * Initialise a Map containing the highest x/y coordinates present on a given x or y coordinate. 
-     * (so lowest and highest x for a given y coordinate or vice versa.)
-     * 
-     * @param redTiles
-     * 
-     * @return
+     * The floor, shrunk down to only the x and y coordinates that hold a red tile. Each of those coordinates becomes a
+     * column or row, and so does each gap between two of them. As the loop only turns on red tiles, every cell of this
+     * compressed floor is either entirely within the loop or entirely outside of it, no matter how many tiles it covers.
+     * <p>
+     * We draw the loop on the compressed floor, and flood it from the outside. Everything the flood doesn't reach is a
+     * red or green tile. A table of prefix sums over the flooded cells then tells us how many outside cells any
+     * rectangle covers in O(1), so a rectangle is valid when that count is 0.
+     * <p>
+     * This takes memory and time in the order of the amount of red tiles squared, no matter how big the floor is.
      */
-    private Map<String, MinMax> initMinMaxCoordinates(List<Tile> redTiles) {
-        int sizeX = redTiles.stream().mapToInt(Tile::x).max().orElse(-1) + 1;
-        int sizeY = redTiles.stream().mapToInt(Tile::y).max().orElse(-1) + 1;
-        Map<String, MinMax> minMaxCache = new HashMap<>();
-        
-        for(int x = 0; x < sizeX; x++) {
-            initVertically(redTiles, x, minMaxCache);
-        }
+    static final class CompressedFloor {
+        private final int[] columns;
+        private final int[] rows;
+        //outsideCells[row][column] = amount of cells outside the loop above and to the left of (row, column), exclusive
+        private final int[][] outsideCells;
 
-        for(int y = 0; y < sizeY; y++) {
-            initHorizontally(redTiles, y, minMaxCache);
+        private CompressedFloor(int[] columns, int[] rows, int[][] outsideCells) {
+            this.columns = columns;
+            this.rows = rows;
+            this.outsideCells = outsideCells;
         }
-        return minMaxCache;
-    }
 
-    /**
-     * Map out one horizontal line of the floor in the minMax map. Take the lowest and highest x coordinate on the given line.
-     * Draw an imaginary line between those points, and update the highest/lowest y coordinates for each coordinate on the x-axes it crosses.
-     * <br/>
-     * Example:
-     * <p>
-     * .#X#.<br/>
-     * .....<br/>
-     * .....
-     * <p>
-     * We draw a line on y: 0 x: 1-3. This makes 0 the lowest and highest y coordinate for x 1-3.
-     * 
-     * 
-     * @param redTiles to get the highest and lowest x coordinate for the current line from
-     * @param y current position on the y-axes
-     * @param minMaxCache to modify min/max x-axes values on.
-     */
-    private void initHorizontally(Collection<Tile> redTiles, int y, Map<String, MinMax> minMaxCache) {
-        int minX = redTiles.stream()
-                .filter(redTile -> redTile.y == y)
-                .mapToInt(Tile::x).min().orElse(-1);
-        int maxX = redTiles.stream()
-                .filter(redTile -> redTile.y == y)
-                .mapToInt(Tile::x).max().orElse(-1);
-
-        if(minX == -1 || maxX == -1) return;
-        for(int x = minX; x <= maxX; x++) {
-            String key = "x%d".formatted(x);
-            if(minMaxCache.containsKey(key)) {
-                minMaxCache.compute(key, (k, v) -> v.min > y ? new MinMax(y, v.max) : v.max < y ? new MinMax(v.min, y) : v);
-            } else {
-                minMaxCache.put(key, new MinMax(y, y));
+        /**
+         * @param redTiles in the order of the loop, each tile in line with the next.
+         */
+        static CompressedFloor of(List<Tile> redTiles) {
+            int[] columns = redTiles.stream().mapToInt(Tile::x).sorted().distinct().toArray();
+            int[] rows = redTiles.stream().mapToInt(Tile::y).sorted().distinct().toArray();
+            //Cell (2i + 1, 2j + 1) is red tile coordinate (columns[i], rows[j]), with an empty border all around.
+            int width = 2 * columns.length + 1;
+            int height = 2 * rows.length + 1;
+            boolean[][] loop = new boolean[height][width];
+
+            for(int i = 0; i < redTiles.size(); i++) {
+                Tile tile = redTiles.get(i);
+                Tile next = redTiles.get((i + 1) % redTiles.size());
+                int column = compressedColumn(columns, tile.x);
+                int row = compressedRow(rows, tile.y);
+                int nextColumn = compressedColumn(columns, next.x);
+                int nextRow = compressedRow(rows, next.y);
+                if(column != nextColumn && row != nextRow)
+                    throw new IllegalArgumentException("Red tiles %s and %s are not in line".formatted(tile, next));
+                for(int y = Math.min(row, nextRow); y <= Math.max(row, nextRow); y++) {
+                    for(int x = Math.min(column, nextColumn); x <= Math.max(column, nextColumn); x++) {
+                        loop[y][x] = true;
+                    }
+                }
             }
+
+            boolean[][] outside = floodOutside(loop, width, height);
+            int[][] outsideCells = new int[height + 1][width + 1];
+            for(int y = 0; y < height; y++) {
+                for(int x = 0; x < width; x++) {
+                    //The gap between two neighbouring coordinates (e.g. 3 and 4) holds no tiles, so it's never in the way.
+                    boolean outsideTiles = outside[y][x] && hasTiles(columns, x) && hasTiles(rows, y);
+                    outsideCells[y + 1][x + 1] = outsideCells[y][x + 1] + outsideCells[y + 1][x] - outsideCells[y][x] + (outsideTiles ? 1 : 0);
+                }
+            }
+            return new CompressedFloor(columns, rows, outsideCells);
         }
-    }
 
-    /**
-     * Map out one vertical line of the floor in the minMax map. Take the lowest and highest y coordinate on the given line.
-     * Draw an imaginary line between those points, and update the highest/lowest x coordinates for each coordinate on the y-axes it crosses.
-     * <br/>
-     * Example:
-     * <p>
-     * .#...<br/>
-     * .X...<br/>
-     * .#...
-     * <p>
-     * We draw a line on y: 0-2 x: 1. This makes 1 the lowest and highest x coordinate for y 0-2.
-     *
-     *
-     * @param redTiles to get the highest and lowest x coordinate for the current line from
-     * @param x current position on the y-axes
-     * @param minMaxCache to modify min/max x-axes values on.
-     */
-    private void initVertically(Collection<Tile> redTiles, int x, Map<String, MinMax> minMaxCache) {
-        int minY = redTiles.stream()
-                .filter(redTile -> redTile.x == x)
-                .mapToInt(Tile::y).min().orElse(-1);
-        int maxY = redTiles.stream()
-                .filter(redTile -> redTile.x == x)
-                .mapToInt(Tile::y).max().orElse(-1);
-
-        if(minY == -1 || maxY == -1) return;
-        for(int y = minY; y <= maxY; y++) {
-            String key = "y%d".formatted(y);
-            if(minMaxCache.containsKey(key)) {
-                minMaxCache.compute(key, (k, v) -> v.min > x ? new MinMax(x, v.max) : v.max < x ? new MinMax(v.min, x) : v);
-            } else {
-                minMaxCache.put(key, new MinMax(x, x));
+        /**
+         * Flood the compressed floor from its top left corner, which is always part of the empty border, without crossing
+         * the loop.
+         */
+        private static boolean[][] floodOutside(boolean[][] loop, int width, int height) {
+            boolean[][] outside = new boolean[height][width];
+            int[] queue = new int[width * height];
+            int head = 0;
+            int tail = 0;
+            outside[0][0] = true;
+            queue[tail++] = 0;
+            while(head < tail) {
+                int cell = queue[head++];
+                int x = cell % width;
+                int y = cell / width;
+                for(int direction = 0; direction < 4; direction++) {
+                    int nextX = x + (direction == 0 ? 1 : direction == 1 ? -1 : 0);
+                    int nextY = y + (direction == 2 ? 1 : direction == 3 ? -1 : 0);
+                    if(nextX < 0 || nextY < 0 || nextX >= width || nextY >= height || outside[nextY][nextX] || loop[nextY][nextX])
+                        continue;
+                    outside[nextY][nextX] = true;
+                    queue[tail++] = nextY * width + nextX;
+                }
             }
+            return outside;
         }
-    }
 
-    /**
-     * Checks whether a combination of tiles forms a valid rectangle. We first check if the four corners are in bounds according
-     * to the minMaxCache we built earlier. If those are in bound, we check all edges too. We do not need to check the entire
-     * rectangle, as anything contained in valid edges will also be valid.
-     * 
-     * @param redTile 
-     * @param otherTile
-     * @param minMaxCache
-     * @return
-     */
-    private boolean isValid(Tile redTile, Tile otherTile, Map<String, MinMax> minMaxCache) {
-        int xBegin = Math.min(redTile.x, otherTile.x);
-        int xEnd = Math.max(redTile.x, otherTile.x);
-        int yBegin = Math.min(redTile.y, otherTile.y);
-        int yEnd = Math.max(redTile.y, otherTile.y);
-        
-        //Check the outer edges first, fail early to improve runtime
-        if(checkNotInBound(minMaxCache, xBegin, yBegin))
-            return false;
-        if(checkNotInBound(minMaxCache, xEnd, yBegin))
-            return false;
-        if(checkNotInBound(minMaxCache, xBegin, yEnd))
-            return false;
-        if(checkNotInBound(minMaxCache, xEnd, yEnd))
-            return false;
-        
-        //Expensive checks along all edges of the rectangle
-        if(!horizontalEdgeInBounds(xBegin, xEnd, yBegin, minMaxCache))
-            return false;
-        if(!horizontalEdgeInBounds(xBegin, xEnd, yEnd, minMaxCache))
-            return false;
-        if(!verticalEdgeInBound(yBegin, yEnd, xBegin, minMaxCache))
-            return false;
-        return verticalEdgeInBound(yBegin, yEnd, xEnd, minMaxCache);
-    }
+        /**
+         * @return whether every tile in the rectangle between both red tiles is a red or green tile.
+         */
+        boolean containsRectangle(Tile redTile, Tile otherTile) {
+            int column = compressedColumn(columns, redTile.x);
+            int otherColumn = compressedColumn(columns, otherTile.x);
+            int row = compressedRow(rows, redTile.y);
+            int otherRow = compressedRow(rows, otherTile.y);
+            int left = Math.min(column, otherColumn);
+            int right = Math.max(column, otherColumn) + 1;
+            int top = Math.min(row, otherRow);
+            int bottom = Math.max(row, otherRow) + 1;
+            return outsideCells[bottom][right] - outsideCells[top][right] - outsideCells[bottom][left] + outsideCells[top][left] == 0;
+        }
 
-    private boolean horizontalEdgeInBounds(int x1, int x2, int y, Map<String, MinMax> minMaxCache) {
-        for(int i = x1; i <= x2; i++) {
-            if(checkNotInBound(minMaxCache, i, y))
-                return false;
+        private static boolean hasTiles(int[] coordinates, int compressed) {
+            if(compressed % 2 == 1 || compressed == 0 || compressed == 2 * coordinates.length)
+                return true;
+            return coordinates[compressed / 2] - coordinates[compressed / 2 - 1] > 1;
         }
-        return true;
-    }
 
-    private boolean verticalEdgeInBound(int y1, int y2, int x, Map<String, MinMax> minMaxCache) {
-        for(int i = y1; i <= y2; i++) {
-            if(checkNotInBound(minMaxCache, x, i))
-                return false;
+        private static int compressedColumn(int[] columns, int x) {
+            return 2 * Arrays.binarySearch(columns, x) + 1;
         }
-        return true;
-    }
 
-    /**
-     * Get the higest and lowest tile coordinates on the x and y axes from the minMaxCache and use it to check whether 
-     * the given coordinates are in bound.
-     * @param minMaxCache a cache with the highest and lowest coordinate for a given x/y coordinate.
-     * @param x to check bounds for
-     * @param y to check bounds for
-     * 
-     * @return
-     */
-    private boolean checkNotInBound(Map<String, MinMax> minMaxCache, int x, int y) {
-        MinMax minMaxX = minMaxCache.get("y%d".formatted(y));
-        MinMax minMaxY = minMaxCache.get("x%d".formatted(x));
-        if(minMaxX.min == -1 || minMaxY.min == -1) return true;
-        return x < minMaxX.min || x > minMaxX.max || y < minMaxY.min || y > minMaxY.max;
+        private static int compressedRow(int[] rows, int y) {
+            return 2 * Arrays.binarySearch(rows, y) + 1;
+        }
     }
 
     public record Tile(int x, int y) {}
     
-    public record TilePair(Tile tile1, Tile tile2) {}
-    
-    public record MinMax(int min,  int max) {}
 
     public int getDayNumber() {
         return 9;
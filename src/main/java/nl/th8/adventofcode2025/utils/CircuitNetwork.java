@@ -0,0 +1,290 @@
+package nl.th8.adventofcode2025.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Network of junction boxes which keeps its circuits up-to-date while boxes keep arriving, where Day08 needs all boxes
+ * up front. Boxes are connected in the same order as Day08 does: closest pair first, with ties ordered on the boxes'
+ * numbers. A box that arrives later simply adds its pairs to the ones waiting to be connected, even if they're closer
+ * than pairs that have been connected already.
+ * <p>
+ * Every box keeps track of its next closest neighbour among the boxes that arrived before it, so each pair belongs to
+ * exactly one box, and a queue hands out the closest of those. Neighbours are looked up in a uniform grid of cells,
+ * which is rebuilt with a fitting cell size every time the amount of boxes doubles, or when boxes arrive so far out that
+ * most cells would be empty. The circuits are kept in a {@link DisjointSet}, together with a count of circuits per
+ * size, so the largest circuits can be looked up without going over all boxes.
+ */
+public class CircuitNetwork {
+    private static final int BOXES_PER_CELL = 2;
+    //Rebuild once there are this many times more cells between the outermost boxes than boxes
+    private static final int MAX_CELLS_PER_BOX = 8;
+
+    private int[] xs = new int[16];
+    private int[] ys = new int[16];
+    private int[] zs = new int[16];
+    private int size = 0;
+    private final DisjointSet circuits = new DisjointSet(0);
+    //Key = size of a circuit, value = amount of circuits of that size
+    private final TreeMap<Integer, Integer> circuitSizes = new TreeMap<>();
+    private final PriorityQueue<Connection> closestNeighbours = new PriorityQueue<>();
+
+    private final Map<Long, List<Integer>> grid = new HashMap<>();
+    private long cellSize = 1;
+    private int sizeAtLastRebuild = 0;
+    private int minX = Integer.MAX_VALUE;
+    private int minY = Integer.MAX_VALUE;
+    private int minZ = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE;
+    private int maxY = Integer.MIN_VALUE;
+    private int maxZ = Integer.MIN_VALUE;
+
+    /**
+     * Add a junction box, in a circuit of its own.
+     *
+     * @return the number of the new box, counting up from 0 in order of arrival.
+     */
+    public synchronized int addJunctionBox(int x, int y, int z) {
+        if(size == xs.length) {
+            xs = Arrays.copyOf(xs, size * 2);
+            ys = Arrays.copyOf(ys, size * 2);
+            zs = Arrays.copyOf(zs, size * 2);
+        }
+        int box = circuits.addElement();
+        xs[box] = x;
+        ys[box] = y;
+        zs[box] = z;
+        size++;
+        circuitSizes.merge(1, 1, Integer::sum);
+
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        minZ = Math.min(minZ, z);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+        maxZ = Math.max(maxZ, z);
+        if(size >= 2 * sizeAtLastRebuild || cellsBetweenOutermostBoxes() > (double) MAX_CELLS_PER_BOX * size)
+            rebuildGrid();
+        else
+            grid.computeIfAbsent(cellKey(x, y, z), key -> new ArrayList<>()).add(box);
+
+        int closestNeighbour = nextOlderNeighbour(box, -1, -1);
+        if(closestNeighbour != -1)
+            closestNeighbours.add(new Connection(squaredDistance(box, closestNeighbour), box, closestNeighbour));
+        return box;
+    }
+
+    /**
+     * Connect the closest pairs of junction boxes which haven't been connected yet. Pairs of boxes which are in the
+     * same circuit already count as connected as well, just like in Day08.
+     *
+     * @param amount of pairs to connect
+     *
+     * @return the amount of pairs connected, which is less than asked when all pairs have been connected.
+     */
+    public synchronized int connectClosestPairs(int amount) {
+        int connected = 0;
+        while(connected < amount && !closestNeighbours.isEmpty()) {
+            Connection connection = closestNeighbours.poll();
+            connect(connection.box, connection.olderBox);
+            connected++;
+
+            int nextNeighbour = nextOlderNeighbour(connection.box, connection.squaredDistance, connection.olderBox);
+            if(nextNeighbour != -1)
+                closestNeighbours.add(new Connection(squaredDistance(connection.box, nextNeighbour), connection.box, nextNeighbour));
+        }
+        return connected;
+    }
+
+    /**
+     * @param amount of circuits to return the size of
+     *
+     * @return the sizes of the largest circuits, from largest to smallest.
+     */
+    public synchronized int[] largestCircuitSizes(int amount) {
+        int[] largest = new int[Math.min(amount, circuits.componentCount())];
+        int found = 0;
+        for(Map.Entry<Integer, Integer> circuitSize : circuitSizes.descendingMap().entrySet()) {
+            for(int i = 0; i < circuitSize.getValue() && found < largest.length; i++) {
+                largest[found++] = circuitSize.getKey();
+            }
+            if(found == largest.length)
+                break;
+        }
+        return largest;
+    }
+
+    /**
+     * @return whether all junction boxes are in a single circuit.
+     */
+    public synchronized boolean isFullyConnected() {
+        return size > 0 && circuits.componentCount() == 1;
+    }
+
+    public synchronized int circuitCount() {
+        return circuits.componentCount();
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void connect(int box, int otherBox) {
+        int boxCircuitSize = circuits.componentSize(box);
+        int otherBoxCircuitSize = circuits.componentSize(otherBox);
+        if(!circuits.union(box, otherBox))
+            return;
+        removeCircuitSize(boxCircuitSize);
+        removeCircuitSize(otherBoxCircuitSize);
+        circuitSizes.merge(boxCircuitSize + otherBoxCircuitSize, 1, Integer::sum);
+    }
+
+    private void removeCircuitSize(int circuitSize) {
+        circuitSizes.computeIfPresent(circuitSize, (key, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * Find the next neighbour of a box among the boxes that arrived before it: the closest one which comes strictly
+     * after the previous neighbour when ordering on (distance, number). We look at the cells in rings around the
+     * box's cell, and can stop once the next ring is further away than the best neighbour found so far.
+     *
+     * @param box to find the neighbour of
+     * @param previousDistance squared distance to the previous neighbour, or -1 to find the closest neighbour
+     * @param previousNeighbour number of the previous neighbour
+     *
+     * @return the number of the next neighbour, or -1 if there are no older boxes left.
+     */
+    private int nextOlderNeighbour(int box, long previousDistance, int previousNeighbour) {
+        long cellX = Math.floorDiv(xs[box], cellSize);
+        long cellY = Math.floorDiv(ys[box], cellSize);
+        long cellZ = Math.floorDiv(zs[box], cellSize);
+        //Offsets to the outermost cells holding boxes, we never need to look beyond those.
+        long lowX = Math.floorDiv(minX, cellSize) - cellX;
+        long lowY = Math.floorDiv(minY, cellSize) - cellY;
+        long lowZ = Math.floorDiv(minZ, cellSize) - cellZ;
+        long highX = Math.floorDiv(maxX, cellSize) - cellX;
+        long highY = Math.floorDiv(maxY, cellSize) - cellY;
+        long highZ = Math.floorDiv(maxZ, cellSize) - cellZ;
+        long lastRing = Math.max(Math.max(Math.max(-lowX, highX), Math.max(-lowY, highY)), Math.max(-lowZ, highZ));
+
+        Neighbour neighbour = new Neighbour(box, previousDistance, previousNeighbour);
+        for(long ring = 0; ring <= lastRing; ring++) {
+            //Every box outside the rings seen so far is at least (ring - 1) whole cells away.
+            long gap = (ring - 1) * cellSize;
+            if(neighbour.best != -1 && gap > 0 && gap > neighbour.bestDistance / gap)
+                break;
+            for(long dx = Math.max(-ring, lowX); dx <= Math.min(ring, highX); dx++) {
+                for(long dy = Math.max(-ring, lowY); dy <= Math.min(ring, highY); dy++) {
+                    if(Math.abs(dx) == ring || Math.abs(dy) == ring) {
+                        for(long dz = Math.max(-ring, lowZ); dz <= Math.min(ring, highZ); dz++) {
+                            neighbour.consider(grid.get(cellKey(cellX + dx, cellY + dy, cellZ + dz)));
+                        }
+                    } else {
+                        //Inside the ring's sides, only the cells on its top and bottom are part of it
+                        if(-ring >= lowZ)
+                            neighbour.consider(grid.get(cellKey(cellX + dx, cellY + dy, cellZ - ring)));
+                        if(ring <= highZ && ring != 0)
+                            neighbour.consider(grid.get(cellKey(cellX + dx, cellY + dy, cellZ + ring)));
+                    }
+                }
+            }
+        }
+        return neighbour.best;
+    }
+
+    /**
+     * A single search for the next older neighbour of a box, keeping track of the best box found so far.
+     */
+    private class Neighbour {
+        private final int box;
+        private final long previousDistance;
+        private final int previousNeighbour;
+        private int best = -1;
+        private long bestDistance = Long.MAX_VALUE;
+
+        Neighbour(int box, long previousDistance, int previousNeighbour) {
+            this.box = box;
+            this.previousDistance = previousDistance;
+            this.previousNeighbour = previousNeighbour;
+        }
+
+        void consider(List<Integer> cell) {
+            if(cell == null)
+                return;
+            for(int candidate : cell) {
+                if(candidate >= box)
+                    continue;
+                long distance = squaredDistance(box, candidate);
+                if(distance < previousDistance || (distance == previousDistance && candidate <= previousNeighbour))
+                    continue;
+                if(distance < bestDistance || (distance == bestDistance && candidate < best)) {
+                    best = candidate;
+                    bestDistance = distance;
+                }
+            }
+        }
+    }
+
+    private double cellsBetweenOutermostBoxes() {
+        return ((double) Math.floorDiv(maxX, cellSize) - Math.floorDiv(minX, cellSize) + 1)
+                * ((double) Math.floorDiv(maxY, cellSize) - Math.floorDiv(minY, cellSize) + 1)
+                * ((double) Math.floorDiv(maxZ, cellSize) - Math.floorDiv(minZ, cellSize) + 1);
+    }
+
+    /**
+     * Choose a cell size which puts a few boxes in each cell on average, spread over the space the boxes cover, and
+     * put all boxes in their new cells. When the boxes are spread out along a line or plane, the cube root of the
+     * volume makes for cells that are too small, so we keep doubling the size until there are few enough cells.
+     */
+    private void rebuildGrid() {
+        double volume = ((double) maxX - minX + 1) * ((double) maxY - minY + 1) * ((double) maxZ - minZ + 1);
+        cellSize = Math.max(1, (long) Math.ceil(Math.cbrt(volume * BOXES_PER_CELL / size)));
+        while(cellsBetweenOutermostBoxes() > Math.max(1, size / BOXES_PER_CELL)) {
+            cellSize *= 2;
+        }
+        sizeAtLastRebuild = size;
+        grid.clear();
+        for(int box = 0; box < size; box++) {
+            grid.computeIfAbsent(cellKey(xs[box], ys[box], zs[box]), key -> new ArrayList<>()).add(box);
+        }
+    }
+
+    private long cellKey(int x, int y, int z) {
+        return cellKey(Math.floorDiv(x, cellSize), Math.floorDiv(y, cellSize), Math.floorDiv(z, cellSize));
+    }
+
+    /**
+     * Hash of the cell's coordinates. Should two cells end up with the same key, they share a list, which only means
+     * the search looks at a few boxes too many.
+     */
+    private static long cellKey(long cellX, long cellY, long cellZ) {
+        return (cellX * 73856093L) ^ (cellY * 19349663L) ^ (cellZ * 83492791L);
+    }
+
+    private long squaredDistance(int box, int otherBox) {
+        long dx = (long) xs[box] - xs[otherBox];
+        long dy = (long) ys[box] - ys[otherBox];
+        long dz = (long) zs[box] - zs[otherBox];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * A pair of a box and a box that arrived before it, ordered on (distance, older box, box) like Day08 orders pairs.
+     */
+    private record Connection(long squaredDistance, int box, int olderBox) implements Comparable<Connection> {
+        @Override
+        public int compareTo(Connection other) {
+            int compared = Long.compare(squaredDistance, other.squaredDistance);
+            if(compared == 0)
+                compared = Integer.compare(olderBox, other.olderBox);
+            if(compared == 0)
+                compared = Integer.compare(box, other.box);
+            return compared;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package nl.th8.adventofcode2025.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Union-find over the elements 0 to n-1 which can be used from multiple threads at once, without locking. Roots are
+ * linked with a compare-and-set, so when two threads try to change the same root, one of them notices and tries again.
+ * Like {@link DisjointSet}, each element we pass while looking up a root is pointed to its grandparent.
+ * <p>
+ * Instead of union by size, which would need the size and parent of a root to change together, roots are always linked
+ * below the root with the higher priority. The priorities are a fixed shuffle of the elements, which keeps the trees
+ * about as shallow as union by size does.
+ */
+public class ConcurrentDisjointSet {
+
+    private final AtomicIntegerArray parent;
+    private final AtomicInteger componentCount;
+
+    public ConcurrentDisjointSet(int amountOfElements) {
+        parent = new AtomicIntegerArray(amountOfElements);
+        for(int i = 0; i < amountOfElements; i++) {
+            parent.set(i, i);
+        }
+        componentCount = new AtomicInteger(amountOfElements);
+    }
+
+    /**
+     * Find the representative of the component containing the element. While other threads are merging components
+     * the representative may change right after, but it's always a root at the moment we find it.
+     *
+     * @param element to look up
+     *
+     * @return the representative of the element's component.
+     */
+    public int find(int element) {
+        int current = parent.get(element);
+        while(current != element) {
+            int grandparent = parent.get(current);
+            //Losing this race is fine, another thread has already pointed the element somewhere further up.
+            parent.compareAndSet(element, current, grandparent);
+            element = current;
+            current = grandparent;
+        }
+        return element;
+    }
+
+    /**
+     * Merge the components of both elements. When multiple threads merge the same two components at the same time,
+     * exactly one of them does the merge and returns true.
+     *
+     * @param element in the first component
+     * @param otherElement in the second component
+     *
+     * @return whether this call merged two different components.
+     */
+    public boolean union(int element, int otherElement) {
+        while(true) {
+            int root = find(element);
+            int otherRoot = find(otherElement);
+            if(root == otherRoot)
+                return false;
+
+            if(priority(root) > priority(otherRoot)) {
+                int swap = root;
+                root = otherRoot;
+                otherRoot = swap;
+            }
+            //Only succeeds if the root hasn't been linked below another root in the meantime.
+            if(parent.compareAndSet(root, root, otherRoot)) {
+                componentCount.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @return the amount of separate components.
+     */
+    public int componentCount() {
+        return componentCount.get();
+    }
+
+    public int size() {
+        return parent.length();
+    }
+
+    /**
+     * A fixed pseudo-random shuffle of the elements, by multiplying with an odd constant. Ties can't happen, as the
+     * multiplication is a bijection on ints.
+     */
+    private static int priority(int element) {
+        return element * 0x9E3779B1;
+    }
+}
@@ -0,0 +1,138 @@
+package nl.th8.adventofcode2025.utils;
+
+import java.util.Arrays;
+
+/**
+ * Union-find over the elements 0 to n-1, with union by size and path compression. Each element starts out in its own
+ * component. The size of each component and the amount of components are kept up-to-date with every union, so neither
+ * needs to be counted afterward.
+ * <p>
+ * Elements can be added afterward as well, see {@link this#addElement()}.
+ */
+public class DisjointSet {
+
+    private int[] parent;
+    private int[] size;
+    private int elementCount;
+    private int componentCount;
+
+    public DisjointSet(int amountOfElements) {
+        parent = new int[amountOfElements];
+        size = new int[amountOfElements];
+        for(int i = 0; i < amountOfElements; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+        elementCount = amountOfElements;
+        componentCount = amountOfElements;
+    }
+
+    /**
+     * Add a new element in its own component. The arrays grow by doubling, so adding costs amortised O(1).
+     *
+     * @return the new element, which is the amount of elements there were before.
+     */
+    public int addElement() {
+        if(elementCount == parent.length) {
+            int capacity = Math.max(8, parent.length * 2);
+            parent = Arrays.copyOf(parent, capacity);
+            size = Arrays.copyOf(size, capacity);
+        }
+        int element = elementCount++;
+        parent[element] = element;
+        size[element] = 1;
+        componentCount++;
+        return element;
+    }
+
+    /**
+     * @return the amount of elements.
+     */
+    public int elementCount() {
+        return elementCount;
+    }
+
+    /**
+     * Find the representative of the component containing the element. Every element we pass on the way up is pointed
+     * to its grandparent, which keeps the paths short for the next lookups.
+     *
+     * @param element to look up
+     *
+     * @return the representative of the element's component.
+     */
+    public int find(int element) {
+        while(parent[element] != element) {
+            parent[element] = parent[parent[element]];
+            element = parent[element];
+        }
+        return element;
+    }
+
+    /**
+     * Merge the components of both elements, hanging the smaller component below the larger one.
+     *
+     * @param element in the first component
+     * @param otherElement in the second component
+     *
+     * @return whether the elements were in different components before.
+     */
+    public boolean union(int element, int otherElement) {
+        int root = find(element);
+        int otherRoot = find(otherElement);
+        if(root == otherRoot)
+            return false;
+
+        if(size[root] < size[otherRoot]) {
+            int swap = root;
+            root = otherRoot;
+            otherRoot = swap;
+        }
+        parent[otherRoot] = root;
+        size[root] += size[otherRoot];
+        componentCount--;
+        return true;
+    }
+
+    /**
+     * @param element to look up
+     *
+     * @return the size of the component containing the element.
+     */
+    public int componentSize(int element) {
+        return size[find(element)];
+    }
+
+    /**
+     * @return the amount of separate components.
+     */
+    public int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * @param amount of components to return the size of
+     *
+     * @return the sizes of the largest components, from largest to smallest.
+     */
+    public int[] largestComponentSizes(int amount) {
+        int[] largest = new int[Math.min(amount, componentCount)];
+        int found = 0;
+        for(int element = 0; element < elementCount; element++) {
+            if(parent[element] != element)
+                continue;
+            //Insert the size into the sorted array of largest sizes found so far, dropping the smallest if it's full.
+            if(found == largest.length) {
+                if(found == 0 || largest[found - 1] >= size[element])
+                    continue;
+                found--;
+            }
+            int position = found++;
+            while(position > 0 && largest[position - 1] < size[element]) {
+                largest[position] = largest[position - 1];
+                position--;
+            }
+            largest[position] = size[element];
+        }
+        return Arrays.copyOf(largest, found);
+    }
+}
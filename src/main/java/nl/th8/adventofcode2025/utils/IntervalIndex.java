@@ -0,0 +1,169 @@
+package nl.th8.adventofcode2025.utils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable index over inclusive ranges of longs. All ranges are sorted and merged once on creation into two parallel
+ * arrays holding the starts and ends of the merged ranges, after which membership is answered with a binary search.
+ */
+public class IntervalIndex {
+
+    private final long[] starts;
+    private final long[] ends;
+
+    private IntervalIndex(long[] starts, long[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /**
+     * Create an index from the ranges begins[i]-ends[i]. Overlapping and adjacent ranges are merged, so 3-5, 4-8 and 9-10
+     * end up as the single range 3-10.
+     * <p>
+     * We don't need to keep each begin paired with its own end to merge the ranges. After sorting both arrays on their
+     * own, the i-th end is followed by a gap exactly when the (i+1)-th begin lies beyond it, as at that point every range
+     * that started has also ended.
+     *
+     * @param begins of the ranges, inclusive
+     * @param ends of the ranges, inclusive
+     *
+     * @return an index of the merged ranges.
+     */
+    public static IntervalIndex of(long[] begins, long[] ends) {
+        if(begins.length != ends.length)
+            throw new IllegalArgumentException("Every range needs both a begin and an end");
+        for(int i = 0; i < begins.length; i++) {
+            if(begins[i] > ends[i])
+                throw new IllegalArgumentException("Range %d-%d ends before it begins".formatted(begins[i], ends[i]));
+        }
+
+        long[] sortedBegins = begins.clone();
+        long[] sortedEnds = ends.clone();
+        Arrays.sort(sortedBegins);
+        Arrays.sort(sortedEnds);
+
+        long[] mergedStarts = new long[sortedBegins.length];
+        long[] mergedEnds = new long[sortedEnds.length];
+        int merged = 0;
+        for(int i = 0; i < sortedBegins.length; i++) {
+            if(i == 0 || sortedBegins[i] - 1 > mergedEnds[merged - 1]) {
+                mergedStarts[merged] = sortedBegins[i];
+                merged++;
+            }
+            mergedEnds[merged - 1] = sortedEnds[i];
+        }
+        return new IntervalIndex(Arrays.copyOf(mergedStarts, merged), Arrays.copyOf(mergedEnds, merged));
+    }
+
+    /**
+     * Binary search for the last range starting at or before the given value, and check whether it reaches the value.
+     *
+     * @param value to look up
+     *
+     * @return whether the value is within any of the ranges.
+     */
+    public boolean contains(long value) {
+        int index = Arrays.binarySearch(starts, value);
+        if(index >= 0)
+            return true;
+        int rangeBefore = -index - 2;
+        return rangeBefore >= 0 && ends[rangeBefore] >= value;
+    }
+
+    /**
+     * Check a whole batch of values at once. Sorted values are checked with a single walk along both the values and the
+     * ranges, as each next value can only be in the same or a later range. Unsorted values are split into blocks of 64
+     * and searched for in parallel on the common ForkJoinPool, one bitmap word per block so no two threads ever write to
+     * the same word.
+     *
+     * @param values to look up
+     * @param sortValues whether to sort the values (in place) before looking them up, so they can be walked instead
+     * @param collectMatches whether to keep track of which values were within the ranges
+     *
+     * @return the amount of values within the ranges, and if collected a bitmap where bit i is set when values[i] is
+     * within the ranges.
+     */
+    public BatchResult containsAll(long[] values, boolean sortValues, boolean collectMatches) {
+        if(sortValues)
+            Arrays.parallelSort(values);
+
+        long[] matches = new long[(values.length + 63) / 64];
+        long count = isSorted(values) ? walkSorted(values, matches) : searchParallel(values, matches);
+        return new BatchResult(count, collectMatches ? BitSet.valueOf(matches) : null);
+    }
+
+    private long walkSorted(long[] values, long[] matches) {
+        long count = 0;
+        int range = 0;
+        for(int i = 0; i < values.length; i++) {
+            while(range < starts.length && ends[range] < values[i]) {
+                range++;
+            }
+            if(range < starts.length && starts[range] <= values[i]) {
+                matches[i >> 6] |= 1L << i;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long searchParallel(long[] values, long[] matches) {
+        return IntStream.range(0, matches.length)
+                .parallel()
+                .mapToLong(word -> {
+                    int end = Math.min(values.length, (word + 1) * 64);
+                    for(int i = word * 64; i < end; i++) {
+                        if(contains(values[i]))
+                            matches[word] |= 1L << i;
+                    }
+                    return Long.bitCount(matches[word]);
+                })
+                .sum();
+    }
+
+    private static boolean isSorted(long[] values) {
+        for(int i = 1; i < values.length; i++) {
+            if(values[i - 1] > values[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Sum the sizes of all merged ranges. As the ranges no longer overlap, no value is counted twice.
+     *
+     * @return the amount of distinct values within the ranges.
+     */
+    public long coveredCount() {
+        long count = 0;
+        for(int i = 0; i < starts.length; i++) {
+            count = Math.addExact(count, ends[i] - starts[i] + 1);
+        }
+        return count;
+    }
+
+    /**
+     * @return the amount of ranges left after merging.
+     */
+    public int size() {
+        return starts.length;
+    }
+
+    long start(int range) {
+        return starts[range];
+    }
+
+    long end(int range) {
+        return ends[range];
+    }
+
+    /**
+     * Result of {@link #containsAll(long[], boolean, boolean)}.
+     *
+     * @param count amount of values within the ranges
+     * @param matches bitmap of the values within the ranges, or null if they weren't collected
+     */
+    public record BatchResult(long count, BitSet matches) {}
+}
@@ -0,0 +1,257 @@
+package nl.th8.adventofcode2025.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary copy of an {@link IntervalIndex}, which is memory-mapped when opened so lookups can start without
+ * parsing the puzzle input again.
+ * <p>
+ * The file starts with a header describing the source file it was built from, followed by a sparse index holding the
+ * absolute start and data offset of every block of {@value #BLOCK_SIZE} ranges. The ranges themselves are stored as
+ * varints: the gap between the start of a range and the end of the range before it, followed by its length. As the
+ * ranges are merged and sorted these are small, non-negative numbers, which mostly fit in a few bytes.
+ * <p>
+ * A lookup does a binary search on the sparse index, and decodes at most one block.
+ */
+public class IntervalIndexFile {
+    private static final int MAGIC = 0x49564958; //"IVIX"
+    private static final int VERSION = 1;
+    private static final int BLOCK_SIZE = 64;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 4 + 8 + 4;
+    private static final int SPARSE_ENTRY_SIZE = 8 + 4;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final long coveredCount;
+    private final int blockCount;
+    private final int dataOffset;
+
+    private IntervalIndexFile(ByteBuffer buffer) {
+        this.buffer = buffer;
+        size = buffer.getInt(32);
+        coveredCount = buffer.getLong(36);
+        blockCount = buffer.getInt(44);
+        dataOffset = HEADER_SIZE + blockCount * SPARSE_ENTRY_SIZE;
+    }
+
+    /**
+     * Open the index file if it is still up-to-date with its source file, otherwise build the index again and write it
+     * so the next run can open it.
+     *
+     * @param source puzzle input the index is built from
+     * @param indexFile to read from or write to
+     * @param builder to create the index when the index file is missing or outdated
+     *
+     * @return the memory-mapped index.
+     */
+    public static IntervalIndexFile openOrBuild(Path source, Path indexFile, Supplier<IntervalIndex> builder) {
+        return open(source, indexFile).orElseGet(() -> {
+            write(builder.get(), source, indexFile);
+            return open(source, indexFile)
+                    .orElseThrow(() -> new IllegalStateException("Index file %s is outdated right after writing it".formatted(indexFile)));
+        });
+    }
+
+    /**
+     * Memory-map the index file. The index is only used when it was built from the source file as it is now. We first
+     * compare the size and last modified time of the source file, and only hash its content when the time differs, so
+     * touching the file doesn't throw away a perfectly fine index. When the content turns out to be the same, the new
+     * time is written to the index file, so the next run doesn't have to hash the source again.
+     *
+     * @param source puzzle input the index was built from
+     * @param indexFile to open
+     *
+     * @return the memory-mapped index, or an empty Optional if the index file is missing or outdated.
+     */
+    public static Optional<IntervalIndexFile> open(Path source, Path indexFile) {
+        if(!Files.isRegularFile(indexFile))
+            return Optional.empty();
+
+        try(FileChannel channel = FileChannel.open(indexFile)) {
+            if(channel.size() < HEADER_SIZE)
+                return Optional.empty();
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+                return Optional.empty();
+            if(buffer.getLong(8) != Files.size(source))
+                return Optional.empty();
+            long lastModified = Files.getLastModifiedTime(source).toMillis();
+            if(buffer.getLong(16) != lastModified) {
+                if(buffer.getLong(24) != hash(source))
+                    return Optional.empty();
+                updateLastModified(indexFile, lastModified);
+            }
+            return Optional.of(new IntervalIndexFile(buffer));
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            throw new IllegalArgumentException("Unable to read index file %s".formatted(indexFile));
+        }
+    }
+
+    private static void updateLastModified(Path indexFile, long lastModified) throws IOException {
+        try(FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putLong(0, lastModified), 16);
+        }
+    }
+
+    /**
+     * Write the index to the given file, together with a description of the source file it was built from. The file is
+     * written next to its destination first and then moved into place, so a run that is cut short never leaves half an
+     * index behind.
+     *
+     * @param index to write
+     * @param source puzzle input the index was built from
+     * @param indexFile to write to
+     */
+    public static void write(IntervalIndex index, Path source, Path indexFile) {
+        try {
+            int blockCount = (index.size() + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            ByteBuffer sparseIndex = ByteBuffer.allocate(blockCount * SPARSE_ENTRY_SIZE);
+
+            long previousEnd = 0;
+            for(int i = 0; i < index.size(); i++) {
+                if(i % BLOCK_SIZE == 0) {
+                    sparseIndex.putLong(index.start(i)).putInt(data.size());
+                    previousEnd = index.start(i);
+                }
+                writeVarLong(data, index.start(i) - previousEnd);
+                writeVarLong(data, index.end(i) - index.start(i));
+                previousEnd = index.end(i);
+            }
+
+            ByteArrayOutputStream file = new ByteArrayOutputStream(HEADER_SIZE + sparseIndex.capacity() + data.size());
+            try(DataOutputStream header = new DataOutputStream(file)) {
+                header.writeInt(MAGIC);
+                header.writeInt(VERSION);
+                header.writeLong(Files.size(source));
+                header.writeLong(Files.getLastModifiedTime(source).toMillis());
+                header.writeLong(hash(source));
+                header.writeInt(index.size());
+                header.writeLong(index.coveredCount());
+                header.writeInt(blockCount);
+                header.write(sparseIndex.array());
+                data.writeTo(header);
+            }
+
+            Path tempFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            Files.write(tempFile, file.toByteArray());
+            Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+            throw new IllegalArgumentException("Unable to write index file %s".formatted(indexFile));
+        }
+    }
+
+    /**
+     * Binary search the sparse index for the last block starting at or before the given value, then decode the ranges
+     * in that block until we've passed the value.
+     *
+     * @param value to look up
+     *
+     * @return whether the value is within any of the ranges.
+     */
+    public boolean contains(long value) {
+        int low = 0;
+        int high = blockCount - 1;
+        int block = -1;
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            if(blockStart(middle) <= value) {
+                block = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if(block == -1)
+            return false;
+
+        Cursor cursor = new Cursor(dataOffset + buffer.getInt(HEADER_SIZE + block * SPARSE_ENTRY_SIZE + 8));
+        int rangesInBlock = Math.min(BLOCK_SIZE, size - block * BLOCK_SIZE);
+        long previousEnd = blockStart(block);
+        for(int i = 0; i < rangesInBlock; i++) {
+            long start = previousEnd + cursor.readVarLong();
+            long end = start + cursor.readVarLong();
+            if(value < start)
+                return false;
+            if(value <= end)
+                return true;
+            previousEnd = end;
+        }
+        return false;
+    }
+
+    /**
+     * @return the amount of distinct values within the ranges.
+     */
+    public long coveredCount() {
+        return coveredCount;
+    }
+
+    /**
+     * @return the amount of merged ranges in the index.
+     */
+    public int size() {
+        return size;
+    }
+
+    private long blockStart(int block) {
+        return buffer.getLong(HEADER_SIZE + block * SPARSE_ENTRY_SIZE);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long hash(Path source) throws IOException {
+        CRC32 crc = new CRC32();
+        try(InputStream in = Files.newInputStream(source)) {
+            byte[] chunk = new byte[64 * 1024];
+            int read;
+            while((read = in.read(chunk)) != -1) {
+                crc.update(chunk, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Reads varints from the mapped index using absolute reads only, so lookups can safely run from multiple threads.
+     */
+    private class Cursor {
+        private int position;
+
+        Cursor(int position) {
+            this.position = position;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                current = buffer.get(position++);
+                value |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while(current < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package nl.th8.adventofcode2025.utils;
+
+/**
+ * k-d tree over points in 3D integer space, used to find close pairs of points without calculating the distance
+ * between every pair. The tree is built once by repeatedly splitting the points at the median of the widest axis, and
+ * stores the bounding box of each node, so whole subtrees that are further away than the best point found so far can be
+ * skipped.
+ * <p>
+ * Distances are squared Euclidean distances calculated in longs, which are exact as long as the coordinates stay within
+ * about a billion of each other. Ties are broken on the index of the point, so every query has a single answer.
+ */
+public class KdTree {
+    private static final int LEAF_SIZE = 8;
+    private static final int NO_LABEL = -1;
+
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] zs;
+    //Points in tree order, each node owns the slice order[from, to)
+    private final int[] order;
+    //Coordinates and labels in tree order, so searching a leaf reads them one after the other
+    private final int[] treeXs;
+    private final int[] treeYs;
+    private final int[] treeZs;
+    private final int[] treeLabels;
+    private final int[] nodeFrom;
+    private final int[] nodeTo;
+    private final int[] nodeLeft;
+    private final int[] nodeRight;
+    //min x, min y, min z, max x, max y, max z per node
+    private final int[] nodeBounds;
+    private final int[] nodeLabels;
+    private int nodeCount = 0;
+    private int[] labelsByPoint;
+
+    /**
+     * @param xs x coordinate of each point
+     * @param ys y coordinate of each point
+     * @param zs z coordinate of each point
+     */
+    public KdTree(int[] xs, int[] ys, int[] zs) {
+        this.xs = xs;
+        this.ys = ys;
+        this.zs = zs;
+        order = new int[xs.length];
+        for(int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        //Splitting at the median never leaves fewer than half a leaf in a leaf, so there are at most n / 4 leaves.
+        int maxNodes = xs.length / 2 + 1;
+        nodeFrom = new int[maxNodes];
+        nodeTo = new int[maxNodes];
+        nodeLeft = new int[maxNodes];
+        nodeRight = new int[maxNodes];
+        nodeBounds = new int[maxNodes * 6];
+        nodeLabels = new int[maxNodes];
+        if(order.length > 0)
+            build(0, order.length);
+
+        treeXs = new int[order.length];
+        treeYs = new int[order.length];
+        treeZs = new int[order.length];
+        treeLabels = new int[order.length];
+        for(int i = 0; i < order.length; i++) {
+            treeXs[i] = xs[order[i]];
+            treeYs[i] = ys[order[i]];
+            treeZs[i] = zs[order[i]];
+        }
+    }
+
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * @return all points in the order they're stored in the tree. Searching for the neighbours of points in this order
+     * keeps consecutive searches in the same part of the tree, which is a lot friendlier on the cache.
+     */
+    public int[] pointsInTreeOrder() {
+        return order.clone();
+    }
+
+    /**
+     * @return the squared Euclidean distance between both points.
+     */
+    public long squaredDistance(int point, int otherPoint) {
+        long dx = (long) xs[point] - xs[otherPoint];
+        long dy = (long) ys[point] - ys[otherPoint];
+        long dz = (long) zs[point] - zs[otherPoint];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Find the next neighbour of a point, after the given one: the closest other point which comes strictly after the
+     * previous neighbour when ordering on (distance, index). Calling this repeatedly, starting at distance -1, hands out
+     * all other points from closest to furthest.
+     *
+     * @param point to find the neighbour of
+     * @param previousDistance squared distance to the previous neighbour, or -1 to find the closest neighbour
+     * @param previousNeighbour index of the previous neighbour
+     *
+     * @return the index of the next neighbour, or -1 if there are no points left.
+     */
+    public int nextNeighbour(int point, long previousDistance, int previousNeighbour) {
+        Search search = new Search(point);
+        search.previousDistance = previousDistance;
+        search.previousNeighbour = previousNeighbour;
+        search.visit(0);
+        return search.best;
+    }
+
+    /**
+     * Label each point, for instance with the component it's in, so {@link this#nearestWithOtherLabel(int)} can look
+     * for the closest point with a different label. Nodes in which all points share the same label remember it, so the
+     * search can skip them as a whole.
+     *
+     * @param labels non-negative label of each point
+     */
+    public void label(int[] labels) {
+        for(int node = nodeCount - 1; node >= 0; node--) {
+            int label;
+            if(nodeLeft[node] == -1) {
+                label = labels[order[nodeFrom[node]]];
+                for(int i = nodeFrom[node] + 1; i < nodeTo[node] && label != NO_LABEL; i++) {
+                    if(labels[order[i]] != label)
+                        label = NO_LABEL;
+                }
+            } else {
+                //Children are always created after their parent, so they've been labeled already.
+                label = nodeLabels[nodeLeft[node]] == nodeLabels[nodeRight[node]] ? nodeLabels[nodeLeft[node]] : NO_LABEL;
+            }
+            nodeLabels[node] = label;
+        }
+        for(int i = 0; i < order.length; i++) {
+            treeLabels[i] = labels[order[i]];
+        }
+        labelsByPoint = labels;
+    }
+
+    /**
+     * Find the closest point with a different label than the given point, see {@link this#label(int[])}. Can safely
+     * be called from multiple threads at once, as long as the labels don't change meanwhile.
+     *
+     * @param point to find the neighbour of
+     * @param maxDistance squared distance beyond which points are ignored, which lets the search skip more of the tree
+     *
+     * @return the index of the closest point with a different label, or -1 if there is no such point within range.
+     */
+    public int nearestWithOtherLabel(int point, long maxDistance) {
+        if(labelsByPoint == null)
+            throw new IllegalStateException("Points need to be labeled first");
+        Search search = new Search(point);
+        search.label = labelsByPoint[point];
+        search.bestDistance = maxDistance;
+        search.visit(0);
+        return search.best;
+    }
+
+    private int build(int from, int to) {
+        int node = nodeCount++;
+        nodeFrom[node] = from;
+        nodeTo[node] = to;
+        int base = node * 6;
+        nodeBounds[base] = nodeBounds[base + 1] = nodeBounds[base + 2] = Integer.MAX_VALUE;
+        nodeBounds[base + 3] = nodeBounds[base + 4] = nodeBounds[base + 5] = Integer.MIN_VALUE;
+        for(int i = from; i < to; i++) {
+            int point = order[i];
+            nodeBounds[base] = Math.min(nodeBounds[base], xs[point]);
+            nodeBounds[base + 1] = Math.min(nodeBounds[base + 1], ys[point]);
+            nodeBounds[base + 2] = Math.min(nodeBounds[base + 2], zs[point]);
+            nodeBounds[base + 3] = Math.max(nodeBounds[base + 3], xs[point]);
+            nodeBounds[base + 4] = Math.max(nodeBounds[base + 4], ys[point]);
+            nodeBounds[base + 5] = Math.max(nodeBounds[base + 5], zs[point]);
+        }
+
+        if(to - from <= LEAF_SIZE) {
+            nodeLeft[node] = nodeRight[node] = -1;
+            return node;
+        }
+
+        int[] axis = widestAxis(base);
+        int middle = (from + to) >>> 1;
+        selectMedian(axis, from, to, middle);
+        nodeLeft[node] = build(from, middle);
+        nodeRight[node] = build(middle, to);
+        return node;
+    }
+
+    private int[] widestAxis(int base) {
+        long width = (long) nodeBounds[base + 3] - nodeBounds[base];
+        long height = (long) nodeBounds[base + 4] - nodeBounds[base + 1];
+        long depth = (long) nodeBounds[base + 5] - nodeBounds[base + 2];
+        if(width >= height && width >= depth)
+            return xs;
+        return height >= depth ? ys : zs;
+    }
+
+    /**
+     * Quickselect on the given coordinate, so order[from, middle) holds the points with the lowest coordinates.
+     */
+    private void selectMedian(int[] coordinates, int from, int to, int middle) {
+        while(to - from > 1) {
+            int pivot = coordinates[order[(from + to) >>> 1]];
+            int i = from;
+            int j = to - 1;
+            while(i <= j) {
+                while(coordinates[order[i]] < pivot) i++;
+                while(coordinates[order[j]] > pivot) j--;
+                if(i <= j) {
+                    int swap = order[i];
+                    order[i++] = order[j];
+                    order[j--] = swap;
+                }
+            }
+            if(middle <= j)
+                to = j + 1;
+            else if(middle >= i)
+                from = i;
+            else
+                return;
+        }
+    }
+
+    /**
+     * A single nearest neighbour search, keeping track of the best point found so far.
+     */
+    private class Search {
+        private final int point;
+        private final int x;
+        private final int y;
+        private final int z;
+        private long previousDistance = -1;
+        private int previousNeighbour = -1;
+        private int label = NO_LABEL;
+        private int best = -1;
+        private long bestDistance = Long.MAX_VALUE;
+
+        Search(int point) {
+            this.point = point;
+            x = xs[point];
+            y = ys[point];
+            z = zs[point];
+        }
+
+        void visit(int node) {
+            if(label != NO_LABEL && nodeLabels[node] == label)
+                return;
+            if(nodeLeft[node] == -1) {
+                for(int i = nodeFrom[node]; i < nodeTo[node]; i++) {
+                    consider(i);
+                }
+                return;
+            }
+            //Visit the closest child first, so we find a good candidate early and can skip more of the other child.
+            long leftDistance = boxDistance(nodeLeft[node]);
+            long rightDistance = boxDistance(nodeRight[node]);
+            int first = leftDistance <= rightDistance ? nodeLeft[node] : nodeRight[node];
+            int second = first == nodeLeft[node] ? nodeRight[node] : nodeLeft[node];
+            long secondDistance = Math.max(leftDistance, rightDistance);
+            if(Math.min(leftDistance, rightDistance) <= bestDistance)
+                visit(first);
+            if(secondDistance <= bestDistance)
+                visit(second);
+        }
+
+        private void consider(int position) {
+            if(label != NO_LABEL && treeLabels[position] == label)
+                return;
+            int candidate = order[position];
+            if(candidate == point)
+                return;
+            long dx = (long) treeXs[position] - x;
+            long dy = (long) treeYs[position] - y;
+            long dz = (long) treeZs[position] - z;
+            long distance = dx * dx + dy * dy + dz * dz;
+            if(distance < previousDistance || (distance == previousDistance && candidate <= previousNeighbour))
+                return;
+            if(distance < bestDistance || (distance == bestDistance && (best == -1 || candidate < best))) {
+                best = candidate;
+                bestDistance = distance;
+            }
+        }
+
+        private long boxDistance(int node) {
+            int base = node * 6;
+            long dx = Math.max(0, Math.max((long) nodeBounds[base] - x, (long) x - nodeBounds[base + 3]));
+            long dy = Math.max(0, Math.max((long) nodeBounds[base + 1] - y, (long) y - nodeBounds[base + 4]));
+            long dz = Math.max(0, Math.max((long) nodeBounds[base + 2] - z, (long) z - nodeBounds[base + 5]));
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package nl.th8.adventofcode2025.utils;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Hands out the values of a long array in ascending order, while only sorting as much of the array as has been asked
+ * for. Each time we run out of sorted values, a quickselect moves the next chunk of smallest values to the front of the
+ * unsorted part, and only that chunk gets sorted. The chunks double in size each time, so handing out the whole array
+ * still costs O(n log n), but handing out only the first k values costs about O(n + k log k).
+ */
+public class LazySortedLongs {
+
+    private final long[] values;
+    private int position = 0;
+    private int sortedUntil = 0;
+    private int chunkSize;
+
+    /**
+     * @param values to hand out, which will be reordered in place
+     * @param firstChunkSize amount of values to sort the first time, ideally the amount of values expected to be needed
+     */
+    public LazySortedLongs(long[] values, int firstChunkSize) {
+        this.values = values;
+        this.chunkSize = Math.max(1, firstChunkSize);
+    }
+
+    public boolean hasNext() {
+        return position < values.length;
+    }
+
+    /**
+     * @return the smallest value not handed out yet.
+     */
+    public long next() {
+        if(!hasNext())
+            throw new NoSuchElementException("All values have been handed out");
+        if(position == sortedUntil) {
+            int chunkEnd = (int) Math.min(values.length, (long) sortedUntil + chunkSize);
+            selectSmallest(values, sortedUntil, values.length, chunkEnd);
+            Arrays.sort(values, sortedUntil, chunkEnd);
+            sortedUntil = chunkEnd;
+            chunkSize = (int) Math.min(Integer.MAX_VALUE, chunkSize * 2L);
+        }
+        return values[position++];
+    }
+
+    /**
+     * Hand out the next values a whole batch at a time, so they can be processed together.
+     *
+     * @param batch to fill with the smallest values not handed out yet, in ascending order
+     *
+     * @return the amount of values put in the batch, which is less than its length when running out of values.
+     */
+    public int next(long[] batch) {
+        int amount = 0;
+        while(amount < batch.length && hasNext()) {
+            batch[amount++] = next();
+        }
+        return amount;
+    }
+
+    /**
+     * Quickselect, reordering values[from, to) so that every value before index k is smaller than or equal to every value
+     * from index k onward. The values on each side of k are left in no particular order.
+     *
+     * @param values to reorder
+     * @param from first index to reorder, inclusive
+     * @param to last index to reorder, exclusive
+     * @param k index to split the values at
+     */
+    public static void selectSmallest(long[] values, int from, int to, int k) {
+        while(to - from > 32) {
+            long pivot = medianOfThree(values[from], values[(from + to) >>> 1], values[to - 1]);
+            int i = from;
+            int j = to - 1;
+            while(i <= j) {
+                while(values[i] < pivot) i++;
+                while(values[j] > pivot) j--;
+                if(i <= j) {
+                    long swap = values[i];
+                    values[i++] = values[j];
+                    values[j--] = swap;
+                }
+            }
+            //Everything up to j is at most the pivot, everything from i onward at least the pivot, and anything in between equals it.
+            if(k <= j)
+                to = j + 1;
+            else if(k > i)
+                from = i;
+            else
+                return;
+        }
+        Arrays.sort(values, from, to);
+    }
+
+    private static long medianOfThree(long a, long b, long c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+}
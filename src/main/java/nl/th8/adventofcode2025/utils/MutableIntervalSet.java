@@ -0,0 +1,133 @@
+package nl.th8.adventofcode2025.utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Set of inclusive ranges of longs which can be changed after creation, where {@link IntervalIndex} has to be rebuilt.
+ * The ranges are kept disjoint in a TreeMap following the format key = start of range, value = end of range, and the
+ * amount of values covered is updated along with every change, so it never needs to be recounted.
+ * <p>
+ * Each change touches the ranges around its begin with a single lookup, and removes every range it swallows. As a range
+ * can only be removed once after being added, all operations run in amortised O(log n).
+ */
+public class MutableIntervalSet {
+
+    private final TreeMap<Long, Long> ranges = new TreeMap<>();
+    private long coveredCount = 0;
+
+    /**
+     * Add the range begin-end, merging it with any range it overlaps or touches.
+     *
+     * @param begin of the range, inclusive
+     * @param end of the range, inclusive
+     */
+    public synchronized void add(long begin, long end) {
+        checkRange(begin, end);
+        long newBegin = begin;
+        long newEnd = end;
+
+        //Merge with a range starting before ours, if it reaches up to our begin (e.g. adding 5-12 to 1-5 merges to 1-12)
+        Map.Entry<Long, Long> before = ranges.floorEntry(begin);
+        if(before != null && before.getValue() >= begin - 1) {
+            newBegin = before.getKey();
+            newEnd = Math.max(newEnd, before.getValue());
+            removeRange(before.getKey(), before.getValue());
+        }
+
+        //Merge with every range starting within or directly behind ours (e.g. adding 1-7 to 3-4 and 8-9 merges to 1-9)
+        Map.Entry<Long, Long> after = ranges.ceilingEntry(newBegin);
+        while(after != null && after.getKey() - 1 <= newEnd) {
+            newEnd = Math.max(newEnd, after.getValue());
+            removeRange(after.getKey(), after.getValue());
+            after = ranges.ceilingEntry(newBegin);
+        }
+
+        addRange(newBegin, newEnd);
+    }
+
+    /**
+     * Remove the range begin-end, cutting any range that sticks out on either side of it.
+     *
+     * @param begin of the range, inclusive
+     * @param end of the range, inclusive
+     */
+    public synchronized void remove(long begin, long end) {
+        checkRange(begin, end);
+
+        //A range starting before ours keeps the part before our begin (e.g. removing 5-6 from 1-10 leaves 1-4 and 7-10)
+        Map.Entry<Long, Long> before = ranges.lowerEntry(begin);
+        if(before != null && before.getValue() >= begin) {
+            removeRange(before.getKey(), before.getValue());
+            addRange(before.getKey(), begin - 1);
+            if(before.getValue() > end)
+                addRange(end + 1, before.getValue());
+        }
+
+        //Ranges starting within ours are removed, only keeping the part behind our end
+        Map.Entry<Long, Long> within = ranges.ceilingEntry(begin);
+        while(within != null && within.getKey() <= end) {
+            removeRange(within.getKey(), within.getValue());
+            if(within.getValue() > end)
+                addRange(end + 1, within.getValue());
+            within = ranges.ceilingEntry(begin);
+        }
+    }
+
+    /**
+     * @param value to look up
+     *
+     * @return whether the value is within any of the ranges.
+     */
+    public synchronized boolean contains(long value) {
+        Map.Entry<Long, Long> range = ranges.floorEntry(value);
+        return range != null && range.getValue() >= value;
+    }
+
+    /**
+     * @return the amount of distinct values within the ranges.
+     */
+    public synchronized long coveredCount() {
+        return coveredCount;
+    }
+
+    /**
+     * @return the amount of disjoint ranges in the set.
+     */
+    public synchronized int size() {
+        return ranges.size();
+    }
+
+    /**
+     * Copy the current ranges into an {@link IntervalIndex}, for when a large batch of lookups needs to be done against
+     * a fixed set of ranges.
+     *
+     * @return an index of the ranges currently in the set.
+     */
+    public synchronized IntervalIndex snapshot() {
+        long[] begins = new long[ranges.size()];
+        long[] ends = new long[ranges.size()];
+        int i = 0;
+        for(var range : ranges.entrySet()) {
+            begins[i] = range.getKey();
+            ends[i] = range.getValue();
+            i++;
+        }
+        return IntervalIndex.of(begins, ends);
+    }
+
+    private void addRange(long begin, long end) {
+        ranges.put(begin, end);
+        coveredCount += end - begin + 1;
+    }
+
+    private void removeRange(long begin, long end) {
+        ranges.remove(begin);
+        coveredCount -= end - begin + 1;
+    }
+
+    private static void checkRange(long begin, long end) {
+        if(begin > end)
+            throw new IllegalArgumentException("Range %d-%d ends before it begins".formatted(begin, end));
+    }
+}
@@ -0,0 +1,79 @@
+package nl.th8.adventofcode2025.utils;
+
+/**
+ * All unique pairs of the elements 0 to n-1, each packed into a single long together with a value belonging to the
+ * pair, like a distance or an area. The value goes in the high bits and the pair's number (first element * n + second
+ * element) in the low bits. Sorting the longs, for instance with {@link LazySortedLongs}, then sorts the pairs by their
+ * value, and pairs with the same value are all kept, ordered by their elements.
+ * <p>
+ * When sorting descending, the packed longs are negated, so sorting them from low to high hands out the highest values
+ * first. Values must be non-negative, and small enough to fit above the pair's number.
+ */
+public class PackedPairs {
+
+    private final int amountOfElements;
+    private final int pairBits;
+    private final boolean descending;
+    private final long[] pairs;
+    private int amountPacked = 0;
+
+    /**
+     * @param amountOfElements to pair up
+     * @param descending whether the pairs should sort from the highest value to the lowest instead
+     */
+    public PackedPairs(int amountOfElements, boolean descending) {
+        this.amountOfElements = amountOfElements;
+        this.descending = descending;
+        pairBits = 64 - Long.numberOfLeadingZeros(Math.max(1, (long) amountOfElements * amountOfElements - 1));
+        long amountOfPairs = (long) amountOfElements * (amountOfElements - 1) / 2;
+        if(amountOfPairs > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("Too many elements to pair up: %d".formatted(amountOfElements));
+        pairs = new long[(int) amountOfPairs];
+    }
+
+    /**
+     * Pack the pairs of an element with all elements after it, behind the pairs packed so far. Calling this for each
+     * element in order packs every pair exactly once. All values are checked up front, so packing itself is a tight loop.
+     *
+     * @param element first element of each pair
+     * @param values of the pairs with each other element, only read after the element itself
+     */
+    public void packRow(int element, long[] values) {
+        //Or-ing the values together sets the sign bit for negative values, and a high bit for values which are too big.
+        long allBits = 0;
+        for(int otherElement = element + 1; otherElement < amountOfElements; otherElement++) {
+            allBits |= values[otherElement];
+        }
+        if(allBits >>> (63 - pairBits) != 0)
+            throw new IllegalArgumentException("Element %d has values which don't fit to pack".formatted(element));
+
+        long firstPair = (long) element * amountOfElements;
+        long sign = descending ? -1 : 1;
+        for(int otherElement = element + 1; otherElement < amountOfElements; otherElement++) {
+            pairs[amountPacked++] = sign * (values[otherElement] << pairBits | (firstPair + otherElement));
+        }
+    }
+
+    /**
+     * @return the packed pairs, which can be reordered in place.
+     */
+    public long[] pairs() {
+        return pairs;
+    }
+
+    public long value(long pair) {
+        return ascending(pair) >>> pairBits;
+    }
+
+    public int firstElement(long pair) {
+        return (int) ((ascending(pair) & ((1L << pairBits) - 1)) / amountOfElements);
+    }
+
+    public int secondElement(long pair) {
+        return (int) ((ascending(pair) & ((1L << pairBits) - 1)) % amountOfElements);
+    }
+
+    private long ascending(long pair) {
+        return descending ? -pair : pair;
+    }
+}
@@ -6,9 +6,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -40,4 +45,71 @@ class Day06Test {
     void solvePart2() {
         assertEquals(3263827, day.solvePartTwo());
     }
-}
\ No newline at end of file
+
+    @Test
+    void solveWithoutOverflow() {
+        when(puzzleInputParser.getInputAsStringList()).thenReturn(Arrays.asList(
+                "9999999999 1",
+                "9999999999 2",
+                "9999999999 3",
+                "*          +"
+        ));
+        Day06 day06 = new Day06(puzzleInputParser);
+
+        assertThrows(ArithmeticException.class, day06::solvePartOne);
+        assertEquals(new BigInteger("999999999700000000029999999999").add(BigInteger.valueOf(6)), day06.solvePartOneExact());
+    }
+
+    @Test
+    void solveWithOtherOperators() {
+        when(puzzleInputParser.getInputAsStringList()).thenReturn(Arrays.asList(
+                "12 5 7",
+                "3  9 2",
+                "<  > ^"
+        ));
+        Day06 day06 = new Day06(puzzleInputParser);
+
+        assertEquals(3 + 9 + (7 ^ 2), day06.solvePartOne());
+        assertEquals(2 + 59 + 72, day06.solvePartTwo());
+    }
+
+    @Test
+    void solveWithNumbersTooLongForALong() {
+        //Twenty rows make numbers of twenty digits when reading the columns.
+        List<String> rows = new ArrayList<>(Collections.nCopies(20, "9 1"));
+        rows.add("+ *");
+        when(puzzleInputParser.getInputAsStringList()).thenReturn(rows);
+        Day06 day06 = new Day06(puzzleInputParser);
+
+        BigInteger twentyNines = BigInteger.TEN.pow(20).subtract(BigInteger.ONE);
+        BigInteger twentyOnes = twentyNines.divide(BigInteger.valueOf(9));
+        assertEquals(20 * 9 + 1, day06.solvePartOne());
+        assertThrows(ArithmeticException.class, day06::solvePartTwo);
+        assertEquals(twentyNines.add(twentyOnes), day06.solvePartTwoExact());
+    }
+
+    @Test
+    void solveWithRowTooLongForALong() {
+        when(puzzleInputParser.getInputAsStringList()).thenReturn(Arrays.asList(
+                "99999999999999999999",
+                "1",
+                "+"
+        ));
+        Day06 day06 = new Day06(puzzleInputParser);
+
+        assertEquals(BigInteger.TEN.pow(20), day06.solvePartOneExact());
+        assertEquals(91 + 19 * 9, day06.solvePartTwo());
+    }
+
+    @Test
+    void solveWithProblemWithoutOperator() {
+        when(puzzleInputParser.getInputAsStringList()).thenReturn(Arrays.asList(
+                "1 2",
+                "3 4",
+                "  +"
+        ));
+        Day06 day06 = new Day06(puzzleInputParser);
+
+        assertThrows(IllegalArgumentException.class, day06::solvePartOne);
+    }
+}
@@ -6,8 +6,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigInteger;
+import java.util.Arrays;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -50,4 +56,59 @@ class Day07Test {
     void solvePart2() {
         assertEquals(40, day.solvePartTwo());
     }
-}
\ No newline at end of file
+
+    @Test
+    void solveBothPartsFromOneManifold() {
+        Day07.TachyonManifold manifold = Day07.TachyonManifold.parse(puzzleInputParser.getInputAs3DCharArray());
+
+        assertEquals(21, manifold.countSplits());
+        assertEquals(40, manifold.countTimelines());
+        assertEquals(21, manifold.countSplits());
+
+        verify(puzzleInputParser, times(1)).getInputAs3DCharArray();
+    }
+
+    @Test
+    void solveAgainWithOtherInput() {
+        assertEquals(21, day.solvePartOne());
+        assertEquals(40, day.solvePartTwo());
+
+        when(puzzleInputParser.getInputAs3DCharArray()).thenReturn(new char[][]{
+                ".S.".toCharArray(),
+                ".^.".toCharArray(),
+                "...".toCharArray()
+        });
+
+        assertEquals(1, day.solvePartOne());
+        assertEquals(2, day.solvePartTwo());
+    }
+
+    @Test
+    void solvePart2Modulo() {
+        assertEquals(40 % 7, ((Day07) day).solvePartTwo(7));
+    }
+
+    @Test
+    void solvePart2WithoutOverflow() {
+        //Every beam hits a splitter on each of the 70 splitter rows, doubling the timelines each time.
+        int depth = 70;
+        int width = depth * 2 + 3;
+        char[][] manifold = new char[depth * 2 + 1][width];
+        for(char[] row : manifold) {
+            Arrays.fill(row, '.');
+        }
+        manifold[0][width / 2] = 'S';
+        for(int level = 0; level < depth; level++) {
+            for(int x = width / 2 - level; x <= width / 2 + level; x += 2) {
+                manifold[level * 2 + 2][x] = '^';
+            }
+        }
+        when(puzzleInputParser.getInputAs3DCharArray()).thenReturn(manifold);
+        Day07 day07 = (Day07) day;
+
+        assertEquals(depth * (depth + 1) / 2, day07.solvePartOne());
+        assertThrows(ArithmeticException.class, day07::solvePartTwo);
+        assertEquals(BigInteger.TWO.pow(depth), day07.solvePartTwoExact());
+        assertEquals(BigInteger.TWO.pow(depth).mod(BigInteger.valueOf(1_000_000_007)).longValueExact(), day07.solvePartTwo(1_000_000_007));
+    }
+}
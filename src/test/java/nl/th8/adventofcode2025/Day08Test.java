@@ -55,4 +55,14 @@ class Day08Test {
     void solvePart2() {
         assertEquals(25272, day.solvePartTwo());
     }
-}
\ No newline at end of file
+
+    @Test
+    void solvePart1WithSpatialIndex() {
+        assertEquals(40, new Day08(puzzleInputParser, 10, 0).solvePartOne());
+    }
+
+    @Test
+    void solvePart2WithSpatialIndex() {
+        assertEquals(25272, new Day08(puzzleInputParser, 10, 0).solvePartTwo());
+    }
+}
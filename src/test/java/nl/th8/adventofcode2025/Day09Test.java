@@ -6,7 +6,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.mock;
@@ -43,4 +46,36 @@ class Day09Test {
     void solvePart2() {
         assertEquals(24, day.solvePartTwo());
     }
-}
\ No newline at end of file
+
+    @Test
+    void solvePart1MatchesAllPairs() {
+        Random random = new Random(47);
+        List<String> redTiles = new ArrayList<>();
+        for(int i = 0; i < 300; i++) {
+            redTiles.add("%d,%d".formatted(random.nextInt(1000), random.nextInt(1000)));
+        }
+        when(puzzleInputParser.getInputAsStringList()).thenReturn(redTiles);
+
+        long biggestSize = 0;
+        for(String redTile : redTiles) {
+            for(String otherTile : redTiles) {
+                String[] tile = redTile.split(",");
+                String[] other = otherTile.split(",");
+                long width = Math.abs(Long.parseLong(tile[0]) - Long.parseLong(other[0])) + 1;
+                long height = Math.abs(Long.parseLong(tile[1]) - Long.parseLong(other[1])) + 1;
+                biggestSize = Math.max(biggestSize, width * height);
+            }
+        }
+
+        assertEquals(biggestSize, new Day09(puzzleInputParser).solvePartOne());
+    }
+
+    @Test
+    void solvePart2WithNeighbouringEdges() {
+        //The loop's edges on y 3 and 4 touch, leaving no tiles between them. Several rectangles share the area of 49.
+        when(puzzleInputParser.getInputAsStringList()).thenReturn(Arrays.asList(
+                "3,2", "3,3", "0,3", "0,4", "3,4", "3,5", "0,5", "0,6", "6,6", "6,7", "3,7", "3,8", "9,8", "9,2"));
+
+        assertEquals(49, new Day09(puzzleInputParser).solvePartTwo());
+    }
+}
@@ -0,0 +1,112 @@
+package nl.th8.adventofcode2025.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitNetworkTest {
+
+    private static final int[][] EXAMPLE = {
+            {162, 817, 812}, {57, 618, 57}, {906, 360, 560}, {592, 479, 940}, {352, 342, 300},
+            {466, 668, 158}, {542, 29, 236}, {431, 825, 988}, {739, 650, 466}, {52, 470, 668},
+            {216, 146, 977}, {819, 987, 18}, {117, 168, 530}, {805, 96, 715}, {346, 949, 466},
+            {970, 615, 88}, {941, 993, 340}, {862, 61, 35}, {984, 92, 344}, {425, 690, 689}};
+
+    @Test
+    void connectsLikeDay08() {
+        CircuitNetwork network = new CircuitNetwork();
+        for(int[] box : EXAMPLE) {
+            network.addJunctionBox(box[0], box[1], box[2]);
+        }
+
+        assertEquals(10, network.connectClosestPairs(10));
+        assertArrayEquals(new int[]{5, 4, 2}, network.largestCircuitSizes(3));
+        assertFalse(network.isFullyConnected());
+    }
+
+    @Test
+    void boxesArrivingLaterAreConnectedFirstWhenCloser() {
+        CircuitNetwork network = new CircuitNetwork();
+        network.addJunctionBox(0, 0, 0);
+        network.addJunctionBox(100, 0, 0);
+        network.addJunctionBox(1000, 0, 0);
+        assertEquals(1, network.connectClosestPairs(1));
+        assertArrayEquals(new int[]{2, 1}, network.largestCircuitSizes(5));
+
+        network.addJunctionBox(1001, 0, 0);
+        assertEquals(1, network.connectClosestPairs(1));
+        assertArrayEquals(new int[]{2, 2}, network.largestCircuitSizes(5));
+
+        assertEquals(4, network.connectClosestPairs(10));
+        assertTrue(network.isFullyConnected());
+        assertEquals(0, network.connectClosestPairs(10));
+    }
+
+    @Test
+    void matchesBruteForceWhileBoxesArrive() {
+        Random random = new Random(46);
+        CircuitNetwork network = new CircuitNetwork();
+        List<int[]> boxes = new ArrayList<>();
+        List<long[]> connectedPairs = new ArrayList<>();
+        DisjointSet expectedCircuits = new DisjointSet(0);
+
+        for(int round = 0; round < 40; round++) {
+            for(int i = random.nextInt(6); i > 0; i--) {
+                //Spread out along x far more than along y and z, with plenty of ties
+                int[] box = {random.nextInt(2000), random.nextInt(20), random.nextInt(5)};
+                boxes.add(box);
+                expectedCircuits.addElement();
+                network.addJunctionBox(box[0], box[1], box[2]);
+            }
+            int amount = random.nextInt(8);
+            int connected = 0;
+            for(; connected < amount; connected++) {
+                long[] pair = closestUnconnectedPair(boxes, connectedPairs);
+                if(pair == null)
+                    break;
+                connectedPairs.add(pair);
+                expectedCircuits.union((int) pair[1], (int) pair[2]);
+            }
+
+            assertEquals(connected, network.connectClosestPairs(amount));
+            assertEquals(expectedCircuits.componentCount(), network.circuitCount());
+            assertArrayEquals(expectedCircuits.largestComponentSizes(4), network.largestCircuitSizes(4));
+        }
+    }
+
+    private long[] closestUnconnectedPair(List<int[]> boxes, List<long[]> connectedPairs) {
+        long[] closest = null;
+        for(int box = 0; box < boxes.size(); box++) {
+            for(int otherBox = box + 1; otherBox < boxes.size(); otherBox++) {
+                long[] pair = {squaredDistance(boxes.get(box), boxes.get(otherBox)), box, otherBox};
+                if(isConnected(connectedPairs, pair))
+                    continue;
+                if(closest == null || pair[0] < closest[0])
+                    closest = pair;
+            }
+        }
+        return closest;
+    }
+
+    private boolean isConnected(List<long[]> connectedPairs, long[] pair) {
+        for(long[] connectedPair : connectedPairs) {
+            if(connectedPair[1] == pair[1] && connectedPair[2] == pair[2])
+                return true;
+        }
+        return false;
+    }
+
+    private long squaredDistance(int[] box, int[] otherBox) {
+        long dx = box[0] - otherBox[0];
+        long dy = box[1] - otherBox[1];
+        long dz = box[2] - otherBox[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
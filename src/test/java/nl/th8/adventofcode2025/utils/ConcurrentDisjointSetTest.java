@@ -0,0 +1,53 @@
+package nl.th8.adventofcode2025.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentDisjointSetTest {
+
+    @Test
+    void unionMergesComponents() {
+        ConcurrentDisjointSet set = new ConcurrentDisjointSet(8);
+        assertTrue(set.union(0, 1));
+        assertTrue(set.union(2, 3));
+        assertTrue(set.union(1, 3));
+        assertFalse(set.union(0, 2));
+        assertTrue(set.union(5, 6));
+
+        assertEquals(4, set.componentCount());
+        assertEquals(set.find(0), set.find(3));
+    }
+
+    @Test
+    void parallelUnionsMatchSequentialUnions() {
+        int amountOfElements = 10_000;
+        Random random = new Random(44);
+        int[] from = random.ints(20_000, 0, amountOfElements).toArray();
+        int[] to = random.ints(20_000, 0, amountOfElements).toArray();
+
+        DisjointSet expected = new DisjointSet(amountOfElements);
+        for(int i = 0; i < from.length; i++) {
+            expected.union(from[i], to[i]);
+        }
+
+        ConcurrentDisjointSet set = new ConcurrentDisjointSet(amountOfElements);
+        long merges = IntStream.range(0, from.length).parallel()
+                .filter(i -> set.union(from[i], to[i]))
+                .count();
+
+        assertEquals(expected.componentCount(), set.componentCount());
+        assertEquals(amountOfElements - expected.componentCount(), merges);
+        for(int i = 0; i < from.length; i++) {
+            assertEquals(set.find(from[i]), set.find(to[i]));
+        }
+        for(int element = 1; element < amountOfElements; element++) {
+            assertEquals(expected.find(element) == expected.find(0), set.find(element) == set.find(0));
+        }
+    }
+}
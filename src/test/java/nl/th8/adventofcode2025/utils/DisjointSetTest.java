@@ -0,0 +1,50 @@
+package nl.th8.adventofcode2025.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DisjointSetTest {
+
+    @Test
+    void unionMergesComponents() {
+        DisjointSet set = new DisjointSet(8);
+        assertTrue(set.union(0, 1));
+        assertTrue(set.union(2, 3));
+        assertTrue(set.union(1, 3));
+        assertFalse(set.union(0, 2));
+        assertTrue(set.union(5, 6));
+
+        assertEquals(4, set.componentCount());
+        assertEquals(4, set.componentSize(2));
+        assertEquals(set.find(0), set.find(3));
+        assertArrayEquals(new int[]{4, 2, 1}, set.largestComponentSizes(3));
+    }
+
+    @Test
+    void largestComponentSizesOfFewerComponents() {
+        DisjointSet set = new DisjointSet(3);
+        set.union(0, 1);
+        set.union(1, 2);
+
+        assertEquals(1, set.componentCount());
+        assertArrayEquals(new int[]{3}, set.largestComponentSizes(3));
+    }
+
+    @Test
+    void addElements() {
+        DisjointSet set = new DisjointSet(0);
+        for(int i = 0; i < 20; i++) {
+            assertEquals(i, set.addElement());
+        }
+        set.union(3, 17);
+        set.union(17, 19);
+
+        assertEquals(20, set.elementCount());
+        assertEquals(18, set.componentCount());
+        assertArrayEquals(new int[]{3, 1}, set.largestComponentSizes(2));
+    }
+}
@@ -0,0 +1,77 @@
+package nl.th8.adventofcode2025.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalIndexFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void mappedIndexMatchesIndex() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("5.txt"), "ranges");
+        //Enough ranges to fill a couple of blocks, with gaps of varying sizes between them
+        long[] begins = new long[1000];
+        long[] ends = new long[1000];
+        for(int i = 0; i < begins.length; i++) {
+            begins[i] = i * 1000L + (i % 7) * 100;
+            ends[i] = begins[i] + (i % 13) * 30;
+        }
+        IntervalIndex index = IntervalIndex.of(begins, ends);
+
+        IntervalIndexFile indexFile = IntervalIndexFile.openOrBuild(source, tempDir.resolve("5.idx"), () -> index);
+
+        assertEquals(index.size(), indexFile.size());
+        assertEquals(index.coveredCount(), indexFile.coveredCount());
+        for(long value = -10; value < 1_000_100; value += 7) {
+            assertEquals(index.contains(value), indexFile.contains(value));
+        }
+    }
+
+    @Test
+    void outdatedIndexIsNotOpened() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("5.txt"), "ranges");
+        Path indexPath = tempDir.resolve("5.idx");
+        IntervalIndexFile.write(IntervalIndex.of(new long[]{3}, new long[]{5}), source, indexPath);
+        assertTrue(IntervalIndexFile.open(source, indexPath).isPresent());
+
+        Files.writeString(source, "other ranges");
+        assertFalse(IntervalIndexFile.open(source, indexPath).isPresent());
+    }
+
+    @Test
+    void changedContentOfTheSameSizeIsNotOpened() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("5.txt"), "ranges");
+        Path indexPath = tempDir.resolve("5.idx");
+        IntervalIndexFile.write(IntervalIndex.of(new long[]{3}, new long[]{5}), source, indexPath);
+
+        Files.writeString(source, "Ranges");
+        Files.setLastModifiedTime(source, FileTime.fromMillis(Files.getLastModifiedTime(source).toMillis() + 60_000));
+        assertFalse(IntervalIndexFile.open(source, indexPath).isPresent());
+    }
+
+    @Test
+    void touchedSourceIsOpenedAndRemembered() throws IOException {
+        Path source = Files.writeString(tempDir.resolve("5.txt"), "ranges");
+        Path indexPath = tempDir.resolve("5.idx");
+        IntervalIndexFile.write(IntervalIndex.of(new long[]{3}, new long[]{5}), source, indexPath);
+
+        long touched = Files.getLastModifiedTime(source).toMillis() + 60_000;
+        Files.setLastModifiedTime(source, FileTime.fromMillis(touched));
+        assertTrue(IntervalIndexFile.open(source, indexPath).isPresent());
+        //The header now holds the new time, so the next open doesn't need to hash the source
+        assertEquals(touched, ByteBuffer.wrap(Files.readAllBytes(indexPath)).getLong(16));
+        assertTrue(IntervalIndexFile.open(source, indexPath).isPresent());
+    }
+}
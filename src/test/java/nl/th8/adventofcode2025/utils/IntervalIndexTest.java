@@ -0,0 +1,60 @@
+package nl.th8.adventofcode2025.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalIndexTest {
+
+    @Test
+    void mergesOverlappingAndAdjacentRanges() {
+        IntervalIndex index = IntervalIndex.of(new long[]{16, 3, 10, 12, 21}, new long[]{20, 5, 14, 18, 22});
+
+        assertEquals(2, index.size());
+        assertFalse(index.contains(2));
+        assertTrue(index.contains(3));
+        assertTrue(index.contains(5));
+        assertFalse(index.contains(9));
+        assertTrue(index.contains(10));
+        assertTrue(index.contains(22));
+        assertFalse(index.contains(23));
+    }
+
+    @Test
+    void coversBridgedRangesOnce() {
+        //5-7 bridges 1-5 and 7-9, and 20-30 swallows 22-25 whole
+        IntervalIndex index = IntervalIndex.of(new long[]{1, 7, 5, 22, 20}, new long[]{5, 9, 7, 25, 30});
+
+        assertEquals(2, index.size());
+        assertEquals(20, index.coveredCount());
+    }
+
+    @Test
+    void containsAllMatchesSingleLookups() {
+        IntervalIndex index = IntervalIndex.of(new long[]{3, 10, 16, 12}, new long[]{5, 14, 20, 18});
+        long[] ingredients = new long[200];
+        for(int i = 0; i < ingredients.length; i++) {
+            ingredients[i] = (i * 7L) % 25;
+        }
+
+        IntervalIndex.BatchResult unsorted = index.containsAll(ingredients.clone(), false, true);
+        for(int i = 0; i < ingredients.length; i++) {
+            assertEquals(index.contains(ingredients[i]), unsorted.matches().get(i));
+        }
+
+        long[] sortedIngredients = ingredients.clone();
+        IntervalIndex.BatchResult sorted = index.containsAll(sortedIngredients, true, true);
+        for(int i = 0; i < sortedIngredients.length; i++) {
+            assertEquals(index.contains(sortedIngredients[i]), sorted.matches().get(i));
+        }
+        assertEquals(unsorted.count(), sorted.count());
+    }
+
+    @Test
+    void rejectsReversedRanges() {
+        assertThrows(IllegalArgumentException.class, () -> IntervalIndex.of(new long[]{5}, new long[]{3}));
+    }
+}
@@ -0,0 +1,66 @@
+package nl.th8.adventofcode2025.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class KdTreeTest {
+
+    private static final int AMOUNT_OF_POINTS = 300;
+
+    private final Random random = new Random(8);
+    //A small range, so there are plenty of points at the same distance
+    private final int[] xs = random.ints(AMOUNT_OF_POINTS, 0, 10).toArray();
+    private final int[] ys = random.ints(AMOUNT_OF_POINTS, 0, 10).toArray();
+    private final int[] zs = random.ints(AMOUNT_OF_POINTS, 0, 10).toArray();
+    private final KdTree tree = new KdTree(xs, ys, zs);
+
+    @Test
+    void nextNeighbourHandsOutAllPointsInOrder() {
+        for(int point = 0; point < AMOUNT_OF_POINTS; point += 37) {
+            long previousDistance = -1;
+            int previousNeighbour = -1;
+            for(int i = 0; i < AMOUNT_OF_POINTS - 1; i++) {
+                int expected = bruteForceNext(point, previousDistance, previousNeighbour);
+                int neighbour = tree.nextNeighbour(point, previousDistance, previousNeighbour);
+                assertEquals(expected, neighbour);
+                previousDistance = tree.squaredDistance(point, neighbour);
+                previousNeighbour = neighbour;
+            }
+            assertEquals(-1, tree.nextNeighbour(point, previousDistance, previousNeighbour));
+        }
+    }
+
+    @Test
+    void nearestWithOtherLabel() {
+        int[] labels = new int[AMOUNT_OF_POINTS];
+        for(int point = 0; point < AMOUNT_OF_POINTS; point++) {
+            labels[point] = xs[point] < 3 ? 0 : (ys[point] + zs[point]) % 4 + 1;
+        }
+        tree.label(labels);
+
+        for(int point = 0; point < AMOUNT_OF_POINTS; point++) {
+            int expected = -1;
+            for(int other = 0; other < AMOUNT_OF_POINTS; other++) {
+                if(labels[other] != labels[point] && (expected == -1 || tree.squaredDistance(point, other) < tree.squaredDistance(point, expected)))
+                    expected = other;
+            }
+            assertEquals(expected, tree.nearestWithOtherLabel(point, Long.MAX_VALUE));
+            assertEquals(-1, tree.nearestWithOtherLabel(point, tree.squaredDistance(point, expected) - 1));
+        }
+    }
+
+    private int bruteForceNext(int point, long previousDistance, int previousNeighbour) {
+        int best = -1;
+        for(int other = 0; other < AMOUNT_OF_POINTS; other++) {
+            long distance = tree.squaredDistance(point, other);
+            if(other == point || distance < previousDistance || (distance == previousDistance && other <= previousNeighbour))
+                continue;
+            if(best == -1 || distance < tree.squaredDistance(point, best))
+                best = other;
+        }
+        return best;
+    }
+}
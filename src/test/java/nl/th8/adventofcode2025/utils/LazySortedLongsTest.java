@@ -0,0 +1,54 @@
+package nl.th8.adventofcode2025.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazySortedLongsTest {
+
+    @Test
+    void handsOutAllValuesInOrder() {
+        long[] values = new Random(8).longs(1000, 0, 50).toArray();
+        long[] expected = values.clone();
+        Arrays.sort(expected);
+
+        LazySortedLongs sorted = new LazySortedLongs(values, 10);
+        long[] handedOut = new long[expected.length];
+        for(int i = 0; i < handedOut.length; i++) {
+            assertTrue(sorted.hasNext());
+            handedOut[i] = sorted.next();
+        }
+        assertFalse(sorted.hasNext());
+        assertArrayEquals(expected, handedOut);
+    }
+
+    @Test
+    void selectSmallestSplitsAtK() {
+        long[] values = new Random(42).longs(500, -100, 100).toArray();
+        long[] expected = values.clone();
+        Arrays.sort(expected);
+
+        LazySortedLongs.selectSmallest(values, 0, values.length, 123);
+        long[] smallest = Arrays.copyOf(values, 123);
+        Arrays.sort(smallest);
+        assertArrayEquals(Arrays.copyOf(expected, 123), smallest);
+    }
+
+    @Test
+    void handsOutBatches() {
+        LazySortedLongs sorted = new LazySortedLongs(new long[]{5, 3, 9, 1, 7}, 2);
+        long[] batch = new long[3];
+
+        assertEquals(3, sorted.next(batch));
+        assertArrayEquals(new long[]{1, 3, 5}, batch);
+        assertEquals(2, sorted.next(batch));
+        assertArrayEquals(new long[]{7, 9}, Arrays.copyOf(batch, 2));
+        assertEquals(0, sorted.next(batch));
+    }
+}
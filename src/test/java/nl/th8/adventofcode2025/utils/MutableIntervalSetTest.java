@@ -0,0 +1,55 @@
+package nl.th8.adventofcode2025.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MutableIntervalSetTest {
+
+    @Test
+    void addMergesRanges() {
+        MutableIntervalSet set = new MutableIntervalSet();
+        set.add(3, 5);
+        set.add(10, 14);
+        set.add(16, 20);
+        set.add(12, 18);
+
+        assertEquals(2, set.size());
+        assertEquals(14, set.coveredCount());
+        assertTrue(set.contains(5));
+        assertFalse(set.contains(8));
+        assertTrue(set.contains(17));
+    }
+
+    @Test
+    void removeCutsRanges() {
+        MutableIntervalSet set = new MutableIntervalSet();
+        set.add(1, 10);
+        set.add(20, 30);
+        set.remove(5, 6);
+        set.remove(9, 25);
+
+        assertEquals(3, set.size());
+        assertEquals(4 + 2 + 5, set.coveredCount());
+        assertTrue(set.contains(4));
+        assertFalse(set.contains(5));
+        assertTrue(set.contains(8));
+        assertFalse(set.contains(25));
+        assertTrue(set.contains(26));
+    }
+
+    @Test
+    void snapshotMatchesSet() {
+        MutableIntervalSet set = new MutableIntervalSet();
+        set.add(1, 5);
+        set.add(7, 9);
+        set.add(5, 7);
+        set.remove(3, 3);
+
+        IntervalIndex index = set.snapshot();
+        assertEquals(set.size(), index.size());
+        assertEquals(set.coveredCount(), index.coveredCount());
+    }
+}
@@ -0,0 +1,58 @@
+package nl.th8.adventofcode2025.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PackedPairsTest {
+
+    @Test
+    void sortsPairsAscendingAndUnpacksThem() {
+        PackedPairs pairs = new PackedPairs(3, false);
+        pairs.packRow(0, new long[]{0, 5, 2});
+        pairs.packRow(1, new long[]{0, 0, 2});
+        pairs.packRow(2, new long[]{0, 0, 0});
+
+        long[] sorted = pairs.pairs().clone();
+        Arrays.sort(sorted);
+
+        //Pairs with the same value are ordered by their elements
+        assertEquals(2, pairs.value(sorted[0]));
+        assertEquals(0, pairs.firstElement(sorted[0]));
+        assertEquals(2, pairs.secondElement(sorted[0]));
+        assertEquals(2, pairs.value(sorted[1]));
+        assertEquals(1, pairs.firstElement(sorted[1]));
+        assertEquals(2, pairs.secondElement(sorted[1]));
+        assertEquals(5, pairs.value(sorted[2]));
+        assertEquals(0, pairs.firstElement(sorted[2]));
+        assertEquals(1, pairs.secondElement(sorted[2]));
+    }
+
+    @Test
+    void sortsPairsDescending() {
+        PackedPairs pairs = new PackedPairs(3, true);
+        pairs.packRow(0, new long[]{0, 5, 2});
+        pairs.packRow(1, new long[]{0, 0, 9});
+
+        long[] sorted = pairs.pairs().clone();
+        Arrays.sort(sorted);
+
+        assertEquals(9, pairs.value(sorted[0]));
+        assertEquals(1, pairs.firstElement(sorted[0]));
+        assertEquals(2, pairs.secondElement(sorted[0]));
+        assertEquals(5, pairs.value(sorted[1]));
+        assertEquals(2, pairs.value(sorted[2]));
+    }
+
+    @Test
+    void rejectsValuesWhichDontFit() {
+        PackedPairs pairs = new PackedPairs(4, false);
+
+        assertThrows(IllegalArgumentException.class, () -> pairs.packRow(0, new long[]{0, 1, 1L << 60, 1}));
+        assertThrows(IllegalArgumentException.class, () -> pairs.packRow(0, new long[]{0, 1, -1, 1}));
+        assertThrows(IllegalArgumentException.class, () -> new PackedPairs(100_000, false));
+    }
+}